@@ -0,0 +1,93 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.ObjectMapper;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.ItemDtoByOwner;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectMapperBenchmark {
+    private static final int COMMENTS_PER_ITEM = 5;
+
+    @Param({"10", "100", "1000"})
+    int size;
+
+    Item item;
+    Booking lastBooking;
+    Booking nextBooking;
+    List<Comment> comments;
+    List<Booking> bookings;
+    List<Item> items;
+    Map<Long, Booking> lastBookings;
+    Map<Long, Booking> nextBookings;
+    Map<Long, List<Comment>> itemComments;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        User owner = User.builder().id(1L).name("owner").email("owner@mail.ru").build();
+        User booker = User.builder().id(2L).name("booker").email("booker@mail.ru").build();
+        item = Item.builder().id(1L).name("table").description("green").available(true).owner(owner).build();
+        comments = new ArrayList<>();
+        bookings = new ArrayList<>();
+        lastBooking = Booking.builder().id(1L).item(item).booker(booker).status(Status.APPROVED)
+                .start(now.minusDays(2)).end(now.minusDays(1)).build();
+        nextBooking = Booking.builder().id(2L).item(item).booker(booker).status(Status.WAITING)
+                .start(now.plusDays(1)).end(now.plusDays(2)).build();
+        for (long i = 1; i <= size; i++) {
+            comments.add(Comment.builder().id(i).text("comment " + i).author(booker).item(item)
+                    .created(now.minusDays(i)).build());
+            bookings.add(Booking.builder().id(i).item(item).booker(booker).status(Status.APPROVED)
+                    .start(now.minusDays(i + 1)).end(now.minusDays(i)).build());
+        }
+        items = new ArrayList<>();
+        lastBookings = new HashMap<>();
+        nextBookings = new HashMap<>();
+        itemComments = new HashMap<>();
+        for (long i = 1; i <= size; i++) {
+            Item pageItem = Item.builder().id(i).name("table " + i).description("green").available(true)
+                    .owner(owner).build();
+            items.add(pageItem);
+            lastBookings.put(i, lastBooking);
+            nextBookings.put(i, nextBooking);
+            List<Comment> pageComments = new ArrayList<>();
+            for (long c = 0; c < COMMENTS_PER_ITEM; c++) {
+                pageComments.add(Comment.builder().id(i * COMMENTS_PER_ITEM + c).text("comment " + c)
+                        .author(booker).item(pageItem).created(now.minusDays(c)).build());
+            }
+            itemComments.put(i, pageComments);
+        }
+    }
+
+    @Benchmark
+    public ItemDtoByOwner toItemDtoByOwner() {
+        return ObjectMapper.toItemDtoByOwner(item, lastBooking, nextBooking, comments);
+    }
+
+    @Benchmark
+    public List<ItemDtoByOwner> toItemDtosByOwner() {
+        return ObjectMapper.toItemDtosByOwner(items, lastBookings, nextBookings, itemComments);
+    }
+
+    @Benchmark
+    public List<BookingOutputDto> toBookingsOutputList() {
+        return ObjectMapper.toBookingsOutputList(bookings);
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static ru.practicum.shareit.item.ItemController.HEADER;
+
+/**
+ * Нагрузка на приложение со встроенным Tomcat: одна операция — concurrency одновременных запросов карточек
+ * вещей по HTTP. Запросов в секунду — число операций, умноженное на concurrency. База по умолчанию — H2
+ * профиля test; spring.datasource.* и server.tomcat.* переопределяются через -jvmArgsAppend "-D...".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RequestThroughputBenchmark {
+    @Param({"100", "1000"})
+    int concurrency;
+    @Param({"1000"})
+    int items;
+
+    ConfigurableApplicationContext context;
+    HttpClient client;
+    List<URI> itemUris;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "--logging.level.org.springframework.transaction.interceptor=WARN",
+                        "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN",
+                        "--logging.level.org.zalando.logbook=WARN",
+                        "--logging.level.ru.practicum.shareit=WARN");
+        seed(context.getBean(JdbcTemplate.class));
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        itemUris = new ArrayList<>(items);
+        for (int i = 1; i <= items; i++) {
+            itemUris.add(URI.create("http://localhost:" + port + "/items/" + i));
+        }
+        client = HttpClient.newHttpClient();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getItemCards() {
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            HttpRequest request = HttpRequest.newBuilder(itemUris.get(ThreadLocalRandom.current().nextInt(items)))
+                    .header(HEADER, "2")
+                    .GET()
+                    .build();
+            responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenAccept(response -> {
+                        if (response.statusCode() != 200) {
+                            throw new IllegalStateException("Статус ответа " + response.statusCode());
+                        }
+                    });
+        }
+        CompletableFuture.allOf(responses).join();
+        return concurrency;
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("INSERT INTO users (user_id, user_name, user_email) VALUES (1, 'owner', 'owner@mail.ru'), "
+                + "(2, 'viewer', 'viewer@mail.ru')");
+        List<Object[]> itemRows = new ArrayList<>(items);
+        for (int i = 1; i <= items; i++) {
+            itemRows.add(new Object[]{i, "item " + i, "item number " + i, true, 1});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (item_id, item_name, item_description, is_available, owner_id) "
+                + "VALUES (?, ?, ?, ?, ?)", itemRows);
+    }
+}
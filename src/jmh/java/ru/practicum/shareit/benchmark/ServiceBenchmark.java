@@ -0,0 +1,151 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoByOwner;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сервисы на встроенной H2 с синтетическими данными: users пользователей, у каждого itemsPerUser вещей,
+ * у каждой вещи bookingsPerItem бронирований других пользователей. Параметры выдачи вынесены в отдельные
+ * состояния, чтобы каждый замер перебирал только свои.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+    private static final String[] WORDS = {"table", "chair", "drill", "bike", "tent", "ladder", "camera", "lamp"};
+
+    @State(Scope.Benchmark)
+    public static class Dataset {
+        @Param({"100"})
+        int users;
+        @Param({"20"})
+        int itemsPerUser;
+        @Param({"10"})
+        int bookingsPerItem;
+        @Param({"5"})
+        int commentsPerItem;
+
+        ConfigurableApplicationContext context;
+        ItemService itemService;
+        BookingService bookingService;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            context = new SpringApplicationBuilder(ShareItApp.class)
+                    .web(WebApplicationType.NONE)
+                    .profiles("test")
+                    .run("--spring.datasource.url=jdbc:h2:mem:benchmark",
+                            "--logging.level.root=WARN",
+                            "--logging.level.org.hibernate.SQL=WARN",
+                            "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                            "--logging.level.org.springframework.transaction.interceptor=WARN",
+                            "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN",
+                            "--logging.level.ru.practicum.shareit=WARN");
+            itemService = context.getBean(ItemService.class);
+            bookingService = context.getBean(BookingService.class);
+            seed(context.getBean(JdbcTemplate.class));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+
+        long randomUserId() {
+            return ThreadLocalRandom.current().nextLong(users) + 1;
+        }
+
+        private void seed(JdbcTemplate jdbcTemplate) {
+            List<Object[]> userRows = new ArrayList<>();
+            for (int i = 1; i <= users; i++) {
+                userRows.add(new Object[]{i, "user" + i, "user" + i + "@mail.ru"});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO users (user_id, user_name, user_email) VALUES (?, ?, ?)", userRows);
+            List<Object[]> itemRows = new ArrayList<>();
+            long itemId = 0;
+            for (int owner = 1; owner <= users; owner++) {
+                for (int i = 0; i < itemsPerUser; i++) {
+                    String word = WORDS[(owner + i) % WORDS.length];
+                    itemRows.add(new Object[]{++itemId, word + " " + i, "used " + word + " of user " + owner, i % 5 != 0, owner});
+                }
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO items (item_id, item_name, item_description, is_available, owner_id) "
+                    + "VALUES (?, ?, ?, ?, ?)", itemRows);
+            LocalDateTime now = LocalDateTime.now();
+            Status[] statuses = Status.values();
+            List<Object[]> bookingRows = new ArrayList<>();
+            long bookingId = 0;
+            long itemCount = (long) users * itemsPerUser;
+            for (long item = 1; item <= itemCount; item++) {
+                long owner = (item - 1) / itemsPerUser + 1;
+                for (int i = 0; i < bookingsPerItem; i++) {
+                    long booker = (owner + i) % users + 1;
+                    LocalDateTime start = now.plusDays((i - bookingsPerItem / 2) * 3L);
+                    bookingRows.add(new Object[]{++bookingId, Timestamp.valueOf(start), Timestamp.valueOf(start.plusDays(2)),
+                            item, booker == owner ? booker % users + 1 : booker, statuses[i % statuses.length].name()});
+                }
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO bookings (booking_id, start_time, end_time, item_id, booker_id, status) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)", bookingRows);
+            List<Object[]> commentRows = new ArrayList<>();
+            long commentId = 0;
+            for (long item = 1; item <= itemCount; item++) {
+                long owner = (item - 1) / itemsPerUser + 1;
+                for (int i = 0; i < commentsPerItem; i++) {
+                    commentRows.add(new Object[]{++commentId, "comment " + i, owner % users + 1, item,
+                            Timestamp.valueOf(now.minusDays(i))});
+                }
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO comments (comment_id, text, author_id, item_id, created) "
+                    + "VALUES (?, ?, ?, ?, ?)", commentRows);
+            jdbcTemplate.update("UPDATE items SET comment_count = ?", commentsPerItem);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class OwnerPage {
+        @Param({"5", "10", "20"})
+        int pageSize;
+    }
+
+    @State(Scope.Benchmark)
+    public static class BookingState {
+        @Param({"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+        String state;
+    }
+
+    @Benchmark
+    public List<ItemDtoByOwner> findByOwnerId(Dataset dataset, OwnerPage page) {
+        return dataset.itemService.findByOwnerId(dataset.randomUserId(), 0, page.pageSize);
+    }
+
+    @Benchmark
+    public List<BookingOutputDto> findAllUsersBooking(Dataset dataset, BookingState bookingState) {
+        return dataset.bookingService.findAllUsersBooking(dataset.randomUserId(), bookingState.state, 0, 10);
+    }
+
+    @Benchmark
+    public List<ItemDto> getUserItemByText(Dataset dataset) {
+        return dataset.itemService.getUserItemByText(WORDS[ThreadLocalRandom.current().nextInt(WORDS.length)],
+                0, 10);
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+public final class ETags {
+    private ETags() {
+    }
+
+    public static String of(String resource, Object fingerprint) {
+        String value = resource + ":" + fingerprint;
+        return "\"" + DigestUtils.md5DigestAsHex(value.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
@@ -16,8 +16,9 @@ import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class ObjectMapper {
@@ -30,11 +31,10 @@ public class ObjectMapper {
     }
 
     public static User toUser(UserDto dto) {
-        return new User(
-                dto.getId(),
-                dto.getName(),
-                dto.getEmail()
-        );
+        return User.builder()
+                .name(dto.getName())
+                .email(dto.getEmail())
+                .build();
     }
 
     public static ItemDto toItemDto(Item item) {
@@ -50,7 +50,6 @@ public class ObjectMapper {
 
     public static Item toItem(ItemDto dto, ItemRequest requests) {
         Item item = new Item();
-        item.setId(dto.getId());
         item.setName(dto.getName());
         item.setDescription(dto.getDescription());
         item.setAvailable(dto.getAvailable());
@@ -58,13 +57,9 @@ public class ObjectMapper {
         return item;
     }
 
-    public static ItemDtoByOwner toItemDtoByOwner(Item item, List<Booking> lastBookings, List<Booking> nextBookings,
+    public static ItemDtoByOwner toItemDtoByOwner(Item item, Booking lastBooking, Booking nextBooking,
                                                   List<Comment> comments) {
         List<CommentDto> commentDto = comments.stream().map(ObjectMapper::toCommentDto).collect(Collectors.toList());
-        Booking nextBooking = nextBookings.stream()
-                .min(Comparator.comparing(Booking::getStart)).orElse(null);
-        Booking lastBooking = lastBookings.stream()
-                .max(Comparator.comparing(Booking::getStart)).orElse(null);
         return new ItemDtoByOwner(
                 item.getId(),
                 item.getName(),
@@ -74,10 +69,23 @@ public class ObjectMapper {
                         item.getRequest().getId() : null,
                 lastBooking != null ? ObjectMapper.toBookingDto(lastBooking) : null,
                 nextBooking != null ? ObjectMapper.toBookingDto(nextBooking) : null,
-                commentDto
+                commentDto,
+                item.getCommentCount() != null ? item.getCommentCount() : 0
         );
     }
 
+    public static List<ItemDtoByOwner> toItemDtosByOwner(List<Item> items, Map<Long, Booking> lastBookings,
+                                                         Map<Long, Booking> nextBookings,
+                                                         Map<Long, List<Comment>> comments) {
+        List<ItemDtoByOwner> dtos = new ArrayList<>(items.size());
+        for (Item item : items) {
+            Long itemId = item.getId();
+            dtos.add(toItemDtoByOwner(item, lastBookings.get(itemId), nextBookings.get(itemId),
+                    comments.getOrDefault(itemId, Collections.emptyList())));
+        }
+        return dtos;
+    }
+
     public static Comment toComment(CommentDto commentDto, User user, Item item) {
         return new Comment(
                 commentDto.getId(),
@@ -99,14 +107,13 @@ public class ObjectMapper {
     }
 
     public static Booking toBooking(BookingDto dto, Item item, User booker) {
-        return new Booking(
-                dto.getId(),
-                item,
-                dto.getStart(),
-                dto.getEnd(),
-                booker,
-                dto.getStatus()
-        );
+        return Booking.builder()
+                .item(item)
+                .start(dto.getStart())
+                .end(dto.getEnd())
+                .booker(booker)
+                .status(dto.getStatus())
+                .build();
     }
 
     public static BookingDto toBookingDto(Booking booking) {
@@ -141,20 +148,19 @@ public class ObjectMapper {
         return result;
     }
 
-    public static ItemRequest toItemRequest(ItemRequestDto dto) {
-        return new ItemRequest(
-                dto.getId(),
-                dto.getDescription(),
-                dto.getRequester(),
-                dto.getCreated()
-        );
+    public static ItemRequest toItemRequest(ItemRequestDto dto, User requester) {
+        return ItemRequest.builder()
+                .description(dto.getDescription())
+                .requester(requester)
+                .created(dto.getCreated())
+                .build();
     }
 
     public static ItemRequestDto toItemRequestDto(ItemRequest request) {
         return new ItemRequestDto(
                 request.getId(),
                 request.getDescription(),
-                request.getRequester(),
+                toUserDto(request.getRequester()),
                 request.getCreated()
         );
     }
@@ -163,7 +169,7 @@ public class ObjectMapper {
         return new ItemRequestDtoByOwner(
                 request.getId(),
                 request.getDescription(),
-                request.getRequester(),
+                toUserDto(request.getRequester()),
                 request.getCreated(),
                 reply
         );
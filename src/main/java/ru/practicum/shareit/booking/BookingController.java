@@ -1,8 +1,12 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingOutputDto;
 
@@ -17,7 +21,9 @@ import static ru.practicum.shareit.item.ItemController.HEADER;
 @Validated
 @RequestMapping(path = "/bookings")
 public class BookingController {
+    static final String NEXT_CURSOR = "X-Next-Cursor";
     private final BookingService bookingService;
+    private final BookingExporter bookingExporter;
 
     @PostMapping
     public BookingOutputDto createBooking(@RequestHeader(HEADER) Long userId,
@@ -38,18 +44,48 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingOutputDto> findAllUsersBooking(@RequestHeader(HEADER) Long userId,
-                                                      @RequestParam(defaultValue = "ALL", required = false) String state,
-                                                      @RequestParam(defaultValue = "0", required = false) @Min(0) int from,
-                                                      @RequestParam(defaultValue = "10", required = false) @Min(1) int size) {
-        return bookingService.findAllUsersBooking(userId, state, from, size);
+    public ResponseEntity<List<BookingOutputDto>> findAllUsersBooking(
+            @RequestHeader(HEADER) Long userId,
+            @RequestParam(defaultValue = "ALL", required = false) String state,
+            @RequestParam(defaultValue = "0", required = false) @Min(0) int from,
+            @RequestParam(defaultValue = "10", required = false) @Min(1) int size,
+            @RequestParam(required = false) String after) {
+        if (after != null) {
+            return withNextCursor(bookingService.findAllUsersBookingAfter(userId, state, after, size));
+        }
+        return ResponseEntity.ok(bookingService.findAllUsersBooking(userId, state, from, size));
     }
 
     @GetMapping("/owner")
-    public List<BookingOutputDto> findAllBookingsForItems(@RequestHeader(HEADER) Long userId,
-                                                          @RequestParam(defaultValue = "ALL", required = false) String state,
-                                                          @RequestParam(defaultValue = "0", required = false) @Min(0) int from,
-                                                          @RequestParam(defaultValue = "10", required = false) @Min(1) int size) {
-        return bookingService.findAllBookingsForItems(userId, state, from, size);
+    public ResponseEntity<List<BookingOutputDto>> findAllBookingsForItems(
+            @RequestHeader(HEADER) Long userId,
+            @RequestParam(defaultValue = "ALL", required = false) String state,
+            @RequestParam(defaultValue = "0", required = false) @Min(0) int from,
+            @RequestParam(defaultValue = "10", required = false) @Min(1) int size,
+            @RequestParam(required = false) String after) {
+        if (after != null) {
+            return withNextCursor(bookingService.findAllBookingsForItemsAfter(userId, state, after, size));
+        }
+        return ResponseEntity.ok(bookingService.findAllBookingsForItems(userId, state, from, size));
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingsForItems(@RequestHeader(HEADER) Long userId,
+                                                                        @RequestParam(defaultValue = "ndjson",
+                                                                                required = false) String format) {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        bookingExporter.checkOwner(userId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .body(out -> bookingExporter.exportOwnerBookings(userId, exportFormat, out));
+    }
+
+    private static ResponseEntity<List<BookingOutputDto>> withNextCursor(Slice<BookingOutputDto> bookings) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (bookings.hasNext()) {
+            List<BookingOutputDto> content = bookings.getContent();
+            response.header(NEXT_CURSOR, BookingCursor.of(content.get(content.size() - 1)));
+        }
+        return response.body(bookings.getContent());
     }
 }
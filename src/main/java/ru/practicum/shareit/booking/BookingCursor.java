@@ -0,0 +1,39 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.exceptions.ValidationException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Позиция в выдаче бронирований для постраничного вывода по ключу: начало и id последнего
+ * полученного бронирования в формате {@code <start>,<bookingId>}.
+ */
+@Getter
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class BookingCursor {
+    LocalDateTime start;
+    Long id;
+
+    public static BookingCursor parse(String token) {
+        String[] parts = token.split(",");
+        if (parts.length != 2) {
+            throw new ValidationException("Некорректный курсор: " + token);
+        }
+        try {
+            return new BookingCursor(LocalDateTime.parse(parts[0].trim()), Long.parseLong(parts[1].trim()));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new ValidationException("Некорректный курсор: " + token);
+        }
+    }
+
+    public static String of(BookingOutputDto booking) {
+        return booking.getStart() + "," + booking.getId();
+    }
+}
@@ -0,0 +1,110 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.ObjectMapper;
+import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.user.UserCache;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Slf4j
+@Component
+public class BookingExporter {
+    static final int FETCH_SIZE = 500;
+    static final String CSV_HEADER = "id,start,end,status,item_id,item_name,booker_id,booker_name";
+    private final BookingRepository bookingRepository;
+    private final UserCache userCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectWriter bookingWriter;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public BookingExporter(BookingRepository bookingRepository, UserCache userCache,
+                           PlatformTransactionManager transactionManager,
+                           com.fasterxml.jackson.databind.ObjectMapper jsonMapper) {
+        this.bookingRepository = bookingRepository;
+        this.userCache = userCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.bookingWriter = jsonMapper.writerFor(BookingOutputDto.class);
+    }
+
+    public void checkOwner(Long ownerId) {
+        if (!userCache.exists(ownerId)) {
+            throw new NotFoundException("Пользователь с id " + ownerId + " не найден.");
+        }
+    }
+
+    public void exportOwnerBookings(Long ownerId, ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        Long exported;
+        try {
+            exported = transactionTemplate.execute(status -> {
+                long count = 0;
+                try (Stream<Booking> bookings = bookingRepository.streamByItemOwnerId(ownerId)) {
+                    Iterator<Booking> iterator = bookings.iterator();
+                    while (iterator.hasNext()) {
+                        write(writer, format, iterator.next());
+                        if (++count % FETCH_SIZE == 0) {
+                            entityManager.clear();
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return count;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        log.info("Выгружено {} бронирований владельца {}.", exported, ownerId);
+    }
+
+    private void write(Writer writer, ExportFormat format, Booking booking) throws IOException {
+        if (format == ExportFormat.CSV) {
+            writer.write(String.join(",",
+                    String.valueOf(booking.getId()),
+                    String.valueOf(booking.getStart()),
+                    String.valueOf(booking.getEnd()),
+                    booking.getStatus().name(),
+                    String.valueOf(booking.getItem().getId()),
+                    csv(booking.getItem().getName()),
+                    String.valueOf(booking.getBooker().getId()),
+                    csv(booking.getBooker().getName())));
+        } else {
+            writer.write(bookingWriter.writeValueAsString(ObjectMapper.toBookingOutputDto(booking)));
+        }
+        writer.write('\n');
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
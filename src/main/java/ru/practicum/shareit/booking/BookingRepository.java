@@ -2,48 +2,67 @@ package ru.practicum.shareit.booking;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.booking.model.Booking;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    Page<Booking> findByBookerIdOrderByStartDesc(Long bookerId, Pageable page);
-
-    Page<Booking> findByBookerIdAndStatusOrderByStartDesc(Long bookerId, Status status, Pageable page);
-
-    Page<Booking> findByBookerIdAndStartIsAfterOrderByStartDesc(Long bookerId, LocalDateTime start, Pageable page);
-
-    Page<Booking> findByBookerIdAndEndIsBeforeOrderByStartDesc(Long bookerId, LocalDateTime start, Pageable page);
-
-    Page<Booking> findByBookerIdAndEndIsAfterAndStartIsBeforeOrderByStartDesc(Long bookerId, LocalDateTime start,
-                                                                              LocalDateTime end, Pageable page);
-
-    Page<Booking> findByItemOwnerIdOrderByStartDesc(Long bookerId, Pageable page);
-
-    Page<Booking> findByItemOwnerIdAndStatusOrderByStartDesc(Long bookerId, Status status, Pageable page);
-
-    Page<Booking> findByItemOwnerIdAndStartIsAfterOrderByStartDesc(Long bookerId, LocalDateTime start, Pageable page);
-
-    Page<Booking> findByItemOwnerIdAndEndIsBeforeOrderByStartDesc(Long bookerId, LocalDateTime start, Pageable page);
-
-    Page<Booking> findByItemOwnerIdAndEndIsAfterAndStartIsBeforeOrderByStartDesc(Long bookerId, LocalDateTime start,
-                                                                                 LocalDateTime end, Pageable page);
-
-    Booking findTopByStatusNotLikeAndBookerIdAndItemIdOrderByEndAsc(Status status, Long authorId, Long itemId);
-
-    List<Booking> findByItemIdAndItemOwnerIdAndStartIsAfterAndStatusIsNot(Long itemId, Long userId,
-                                                                          LocalDateTime start, Status status);
-
-    Page<Booking> findByItemIdAndItemOwnerIdAndStartIsAfterAndStatusIsNot(Long itemId, Long userId,
-                                                                          LocalDateTime start, Status status,
-                                                                          Pageable page);
-
-    List<Booking> findByItemIdAndItemOwnerIdAndStartIsBeforeAndStatusIsNot(Long itemId, Long userId,
-                                                                           LocalDateTime start, Status status);
-
-    Page<Booking> findByItemIdAndItemOwnerIdAndStartIsBeforeAndStatusIsNot(Long itemId, Long userId,
-                                                                           LocalDateTime start, Status status,
-                                                                           Pageable page);
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public interface BookingRepository extends JpaRepository<Booking, Long>, JpaSpecificationExecutor<Booking>,
+        BookingRepositoryCustom {
+    @Override
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Optional<Booking> findById(Long bookingId);
+
+    @Override
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Page<Booking> findAll(Specification<Booking> spec, Pageable page);
+
+    boolean existsByItemIdAndStatusInAndStartIsBeforeAndEndIsAfter(Long itemId, Collection<Status> statuses,
+                                                                   LocalDateTime end, LocalDateTime start);
+
+    @Query("select min(b.end) from Booking b " +
+            "where b.booker.id = :bookerId and b.item.id = :itemId and b.status = :status")
+    LocalDateTime findFirstEnd(@Param("bookerId") Long bookerId, @Param("itemId") Long itemId,
+                               @Param("status") Status status);
+
+    @EntityGraph(attributePaths = "booker")
+    Booking findFirstByItemIdAndItemOwnerIdAndStartIsAfterAndStatusIsNotOrderByStartAscIdAsc(
+            Long itemId, Long userId, LocalDateTime start, Status status);
+
+    @EntityGraph(attributePaths = "booker")
+    Booking findFirstByItemIdAndItemOwnerIdAndStartIsBeforeAndStatusIsNotOrderByStartDescIdDesc(
+            Long itemId, Long userId, LocalDateTime start, Status status);
+
+    @Query("select b from Booking b join fetch b.booker " +
+            "where b.item.id in :itemIds and b.status <> :status " +
+            "and (b.start = (select max(l.start) from Booking l " +
+            "where l.item.id = b.item.id and l.start < :now and l.status <> :status) " +
+            "or b.start = (select min(n.start) from Booking n " +
+            "where n.item.id = b.item.id and n.start > :now and n.status <> :status)) " +
+            "order by b.id")
+    List<Booking> findLastAndNextBookingsByItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                                   @Param("now") LocalDateTime now,
+                                                   @Param("status") Status status);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + BookingExporter.FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select b from Booking b join fetch b.item i join fetch b.booker " +
+            "where i.owner.id = :ownerId order by b.start desc, b.id desc")
+    Stream<Booking> streamByItemOwnerId(@Param("ownerId") Long ownerId);
 }
\ No newline at end of file
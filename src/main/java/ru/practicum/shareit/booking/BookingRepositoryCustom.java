@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.model.Booking;
+
+public interface BookingRepositoryCustom {
+    Slice<Booking> findSlice(Specification<Booking> spec, int size);
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.booking;
 
+import org.springframework.data.domain.Slice;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingOutputDto;
 
@@ -15,4 +16,8 @@ public interface BookingService {
     List<BookingOutputDto> findAllUsersBooking(Long userId, String state, int from, int size);
 
     List<BookingOutputDto> findAllBookingsForItems(Long userId, String state, int from, int size);
+
+    Slice<BookingOutputDto> findAllUsersBookingAfter(Long userId, String state, String after, int size);
+
+    Slice<BookingOutputDto> findAllBookingsForItemsAfter(Long userId, String state, String after, int size);
 }
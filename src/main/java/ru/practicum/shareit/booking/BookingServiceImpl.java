@@ -2,26 +2,34 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.ObjectMapper;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingOutputDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exceptions.AlreadyExistsException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.ItemCardChangedEvent;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserCache;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 import static ru.practicum.shareit.SortType.START;
-import static ru.practicum.shareit.booking.State.checkEnumExist;
+import static ru.practicum.shareit.booking.BookingSpecifications.after;
+import static ru.practicum.shareit.booking.BookingSpecifications.byBooker;
+import static ru.practicum.shareit.booking.BookingSpecifications.byItemOwner;
+import static ru.practicum.shareit.booking.BookingSpecifications.inState;
 import static ru.practicum.shareit.item.ItemService.checkItemAccess;
 import static ru.practicum.shareit.item.ItemService.checkItemExists;
 
@@ -30,16 +38,21 @@ import static ru.practicum.shareit.item.ItemService.checkItemExists;
 @RequiredArgsConstructor
 @Slf4j
 public class BookingServiceImpl implements BookingService {
+    private static final List<Status> BLOCKING_STATUSES = List.of(Status.WAITING, Status.APPROVED);
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
+    private final UserCache userCache;
     private final ItemRepository itemRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public BookingOutputDto createBooking(BookingDto dto, Long userId) {
         Long itemId = dto.getItemId();
         validationBookingPeriod(dto);
-        checkUserAvailability(userId);
-        Item item = itemRepository.findById(itemId).orElseThrow(() ->
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("Пользователь с запрашиваемым id не зарегистрирован.");
+        }
+        Item item = itemRepository.findByIdForUpdate(itemId).orElseThrow(() ->
                 new NotFoundException("Вещь с указанным id не найдена."));
         if (!item.getAvailable()) {
             throw new ValidationException("Вещь уже забронирована.");
@@ -47,10 +60,16 @@ public class BookingServiceImpl implements BookingService {
         if (userId.equals(item.getOwner().getId())) {
             throw new NotFoundException("Владелец вещи не может её забронировать.");
         }
+        if (bookingRepository.existsByItemIdAndStatusInAndStartIsBeforeAndEndIsAfter(itemId, BLOCKING_STATUSES,
+                dto.getEnd(), dto.getStart())) {
+            throw new AlreadyExistsException("Вещь уже забронирована на указанный период.");
+        }
         dto.setStatus(Status.WAITING);
-        Booking booking = ObjectMapper.toBooking(dto, item, userRepository.getReferenceById(userId));
+        Booking booking = bookingRepository.save(ObjectMapper.toBooking(dto, item,
+                userRepository.getReferenceById(userId)));
+        eventPublisher.publishEvent(new ItemCardChangedEvent(itemId));
         log.info("Добавлено бронирование c id {}", booking.getId());
-        return ObjectMapper.toBookingOutputDto(bookingRepository.save(booking));
+        return ObjectMapper.toBookingOutputDto(booking);
     }
 
     @Override
@@ -67,13 +86,11 @@ public class BookingServiceImpl implements BookingService {
         if (!approved && booking.getStatus() == Status.REJECTED) {
             throw new ValidationException("Бронирование уже отклонено.");
         }
-        if (approved) {
-            booking.setStatus(Status.APPROVED);
-        } else {
-            booking.setStatus(Status.REJECTED);
-        }
-        log.info("Подтверждено бронирование c id {}", booking.getId());
-        return ObjectMapper.toBookingOutputDto(bookingRepository.save(booking));
+        booking.setStatus(booking.getStatus().transitionTo(approved ? Status.APPROVED : Status.REJECTED));
+        Booking savedBooking = bookingRepository.saveAndFlush(booking);
+        eventPublisher.publishEvent(new ItemCardChangedEvent(itemId));
+        log.info("Бронирование c id {} переведено в статус {}", booking.getId(), booking.getStatus());
+        return ObjectMapper.toBookingOutputDto(savedBooking);
     }
 
     @Override
@@ -95,33 +112,7 @@ public class BookingServiceImpl implements BookingService {
     @Transactional(readOnly = true)
     public List<BookingOutputDto> findAllUsersBooking(Long userId, String state, int from, int size) {
         checkUserAvailability(userId);
-        LocalDateTime start = LocalDateTime.now();
-        Page<Booking> bookings = null;
-        checkEnumExist(state);
-        State bookingStatus = State.valueOf(state.toUpperCase());
-        Sort sort = START.getSortValue();
-        PageRequest page = PageRequest.of(from / size, size, sort);
-        switch (bookingStatus) {
-            case ALL:
-                bookings = bookingRepository.findByBookerIdOrderByStartDesc(userId, page);
-                break;
-            case CURRENT:
-                bookings = bookingRepository.findByBookerIdAndEndIsAfterAndStartIsBeforeOrderByStartDesc(userId,
-                        start, start, page);
-                break;
-            case PAST:
-                bookings = bookingRepository.findByBookerIdAndEndIsBeforeOrderByStartDesc(userId, start, page);
-                break;
-            case FUTURE:
-                bookings = bookingRepository.findByBookerIdAndStartIsAfterOrderByStartDesc(userId, start, page);
-                break;
-            case WAITING:
-                bookings = bookingRepository.findByBookerIdAndStatusOrderByStartDesc(userId, Status.WAITING, page);
-                break;
-            case REJECTED:
-                bookings = bookingRepository.findByBookerIdAndStatusOrderByStartDesc(userId, Status.REJECTED, page);
-                break;
-        }
+        Page<Booking> bookings = findPage(byBooker(userId), State.parse(state), from, size);
         log.info("Список бронирований пользователя {}", bookings);
         return ObjectMapper.toBookingsOutputList(bookings);
     }
@@ -129,40 +120,46 @@ public class BookingServiceImpl implements BookingService {
     @Override
     public List<BookingOutputDto> findAllBookingsForItems(Long userId, String state, int from, int size) {
         checkUserAvailability(userId);
-        if (itemRepository.findItemsByOwnerId(userId).isEmpty()) {
+        if (!itemRepository.existsByOwnerId(userId)) {
             throw new NotFoundException("У пользователя c id " + userId + " нет вещей.");
         }
-        LocalDateTime start = LocalDateTime.now();
-        Page<Booking> bookings = null;
-        checkEnumExist(state);
-        State bookingStatus = State.valueOf(state.toUpperCase());
-        Sort sort = START.getSortValue();
-        PageRequest page = PageRequest.of(from / size, size, sort);
-        switch (bookingStatus) {
-            case ALL:
-                bookings = bookingRepository.findByItemOwnerIdOrderByStartDesc(userId, page);
-                break;
-            case CURRENT:
-                bookings = bookingRepository.findByItemOwnerIdAndEndIsAfterAndStartIsBeforeOrderByStartDesc(userId,
-                        start, start, page);
-                break;
-            case PAST:
-                bookings = bookingRepository.findByItemOwnerIdAndEndIsBeforeOrderByStartDesc(userId, start, page);
-                break;
-            case FUTURE:
-                bookings = bookingRepository.findByItemOwnerIdAndStartIsAfterOrderByStartDesc(userId, start, page);
-                break;
-            case WAITING:
-                bookings = bookingRepository.findByItemOwnerIdAndStatusOrderByStartDesc(userId, Status.WAITING, page);
-                break;
-            case REJECTED:
-                bookings = bookingRepository.findByItemOwnerIdAndStatusOrderByStartDesc(userId, Status.REJECTED, page);
-                break;
-        }
+        Page<Booking> bookings = findPage(byItemOwner(userId), State.parse(state), from, size);
         log.info("Cписок бронирований вещи {}", bookings);
         return ObjectMapper.toBookingsOutputList(bookings);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<BookingOutputDto> findAllUsersBookingAfter(Long userId, String state, String after, int size) {
+        checkUserAvailability(userId);
+        State bookingStatus = State.parse(state);
+        Slice<Booking> bookings = bookingRepository.findSlice(byBooker(userId)
+                .and(inState(bookingStatus, LocalDateTime.now()))
+                .and(after(BookingCursor.parse(after))), size);
+        log.info("Список бронирований пользователя {}", bookings);
+        return bookings.map(ObjectMapper::toBookingOutputDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<BookingOutputDto> findAllBookingsForItemsAfter(Long userId, String state, String after, int size) {
+        checkUserAvailability(userId);
+        if (!itemRepository.existsByOwnerId(userId)) {
+            throw new NotFoundException("У пользователя c id " + userId + " нет вещей.");
+        }
+        State bookingStatus = State.parse(state);
+        Slice<Booking> bookings = bookingRepository.findSlice(byItemOwner(userId)
+                .and(inState(bookingStatus, LocalDateTime.now()))
+                .and(after(BookingCursor.parse(after))), size);
+        log.info("Cписок бронирований вещи {}", bookings);
+        return bookings.map(ObjectMapper::toBookingOutputDto);
+    }
+
+    private Page<Booking> findPage(Specification<Booking> role, State state, int from, int size) {
+        PageRequest page = PageRequest.of(from / size, size, START.getSortValue());
+        return bookingRepository.findAll(role.and(inState(state, LocalDateTime.now())), page);
+    }
+
     private void validationBookingPeriod(BookingDto booking) {
         LocalDateTime end = booking.getEnd();
         LocalDateTime start = booking.getStart();
@@ -172,7 +169,7 @@ public class BookingServiceImpl implements BookingService {
     }
 
     public void checkUserAvailability(long id) {
-        if (!userRepository.existsById(id)) {
+        if (!userCache.exists(id)) {
             throw new NotFoundException("Пользователь с запрашиваемым id не зарегистрирован.");
         }
     }
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.booking;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Окончание самой ранней подтверждённой аренды вещи пользователем. Хранится момент, а не флаг
+ * «можно комментировать»: право появляется с течением времени без изменения данных. В кэш попадают
+ * только уже завершившиеся аренды — этот ответ не меняется, поэтому сбрасывать его на других узлах не нужно.
+ */
+@Component
+public class CompletedRentals {
+    private final BookingRepository bookingRepository;
+    private final Cache<Key, LocalDateTime> completedEnds;
+
+    public CompletedRentals(BookingRepository bookingRepository, MeterRegistry meterRegistry,
+                            @Value("${shareit.cache.completed-rentals.maximum-size:100000}") long maximumSize,
+                            @Value("${shareit.cache.completed-rentals.expire-after-write:10m}")
+                            Duration expireAfterWrite) {
+        this.bookingRepository = bookingRepository;
+        completedEnds = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, completedEnds, "completed-rentals");
+    }
+
+    public Optional<LocalDateTime> firstEnd(long bookerId, long itemId) {
+        Key key = new Key(bookerId, itemId);
+        LocalDateTime completedEnd = completedEnds.getIfPresent(key);
+        if (completedEnd != null) {
+            return Optional.of(completedEnd);
+        }
+        Optional<LocalDateTime> end = Optional.ofNullable(bookingRepository.findFirstEnd(bookerId, itemId,
+                Status.APPROVED));
+        end.filter(value -> value.isBefore(LocalDateTime.now()))
+                .ifPresent(value -> completedEnds.put(key, value));
+        return end;
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class Key {
+        private final long bookerId;
+        private final long itemId;
+    }
+}
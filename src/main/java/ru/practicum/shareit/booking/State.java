@@ -2,6 +2,11 @@ package ru.practicum.shareit.booking;
 
 import ru.practicum.shareit.exceptions.UnsupportedStateException;
 
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 public enum State {
     ALL,
     CURRENT,
@@ -10,13 +15,14 @@ public enum State {
     WAITING,
     REJECTED;
 
-    public static void checkEnumExist(String state) {
-        for (State available : State.values()) {
-            if (available.name().equals(state)) {
-                return;
-            }
+    private static final Map<String, State> BY_NAME = Arrays.stream(values())
+            .collect(Collectors.toUnmodifiableMap(State::name, Function.identity()));
+
+    public static State parse(String state) {
+        State parsed = state == null ? null : BY_NAME.get(state);
+        if (parsed == null) {
+            throw new UnsupportedStateException("Unknown state: UNSUPPORTED_STATUS");
         }
-        throw new UnsupportedStateException("Unknown state: UNSUPPORTED_STATUS");
+        return parsed;
     }
 }
-
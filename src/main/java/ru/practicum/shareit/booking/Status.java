@@ -1,9 +1,38 @@
 package ru.practicum.shareit.booking;
 
+import ru.practicum.shareit.exceptions.ConflictException;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum Status {
     NEW,
     WAITING,
     APPROVED,
     REJECTED,
-    CANCELED
+    CANCELED;
+
+    private static final Map<Status, Set<Status>> TRANSITIONS = new EnumMap<>(Status.class);
+
+    static {
+        TRANSITIONS.put(NEW, EnumSet.of(WAITING, CANCELED));
+        TRANSITIONS.put(WAITING, EnumSet.of(APPROVED, REJECTED, CANCELED));
+        TRANSITIONS.put(APPROVED, EnumSet.of(CANCELED));
+        TRANSITIONS.put(REJECTED, EnumSet.noneOf(Status.class));
+        TRANSITIONS.put(CANCELED, EnumSet.noneOf(Status.class));
+    }
+
+    public boolean canTransitionTo(Status target) {
+        return TRANSITIONS.get(this).contains(target);
+    }
+
+    public Status transitionTo(Status target) {
+        if (!canTransitionTo(target)) {
+            throw new ConflictException(String.format("Нельзя перевести бронирование из статуса %s в %s.",
+                    this, target));
+        }
+        return target;
+    }
 }
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.item.InMemoryItemCardStore;
+import ru.practicum.shareit.item.ItemCardStore;
+
+import java.time.Duration;
+
+@Configuration
+public class ItemCardStoreConfig {
+    @Bean
+    @ConditionalOnProperty(name = "shareit.item-card.cache.store-type", havingValue = "memory", matchIfMissing = true)
+    public ItemCardStore inMemoryItemCardStore(
+            @Value("${shareit.item-card.cache.store.maximum-size:100000}") long maximumSize,
+            @Value("${shareit.item-card.cache.store.expire-after-write:30m}") Duration expireAfterWrite) {
+        return new InMemoryItemCardStore(maximumSize, expireAfterWrite);
+    }
+}
@@ -1,11 +1,13 @@
 package ru.practicum.shareit.exceptions;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import javax.validation.ConstraintViolationException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -22,6 +24,11 @@ public class ErrorHandler {
         return sendError(e, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler
+    public ResponseEntity<String> handleConstraintViolationException(final ConstraintViolationException e) {
+        return sendError(e, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(UnsupportedStateException.class)
     public ResponseEntity<?> unsupportedStateException(UnsupportedStateException e) {
         Map<String, String> errors = new HashMap<>();
@@ -34,6 +41,17 @@ public class ErrorHandler {
         return sendError(e, HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler
+    public ResponseEntity<String> handleConflictException(final ConflictException e) {
+        return sendError(e, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<String> handleOptimisticLockingFailure(final OptimisticLockingFailureException e) {
+        log.info("409 Conflict: {}", e.getMessage());
+        return new ResponseEntity<>("Данные изменены параллельным запросом, повторите попытку.", HttpStatus.CONFLICT);
+    }
+
     public static ResponseEntity<String> sendError(Throwable e, HttpStatus httpStatus) {
         log.info("{} {}: {}", httpStatus.value(), httpStatus.getReasonPhrase(), e.getMessage(), e);
         return new ResponseEntity<>(e.getMessage(), httpStatus);
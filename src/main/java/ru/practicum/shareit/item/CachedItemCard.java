@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.item.dto.ItemDtoByOwner;
+
+/**
+ * Карточка вещи вместе с отпечатком состояния, по которому она собрана.
+ */
+@Getter
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CachedItemCard {
+    String fingerprint;
+    ItemDtoByOwner card;
+}
@@ -1,13 +1,27 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Comment;
 
 import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findByItemId(Long itemId);
+    @EntityGraph(attributePaths = "author")
+    List<Comment> findByItemIdOrderByIdDesc(Long itemId, Pageable page);
 
-    List<Comment> findByItemIdIn(Collection<Long> itemIds);
+    @EntityGraph(attributePaths = "author")
+    List<Comment> findByItemIdAndIdLessThanOrderByIdDesc(Long itemId, Long cursor, Pageable page);
+
+    @Query(value = "SELECT t.comment_id FROM (SELECT c.comment_id, " +
+            "ROW_NUMBER() OVER (PARTITION BY c.item_id ORDER BY c.comment_id DESC) AS rn " +
+            "FROM comments c WHERE c.item_id IN (:itemIds)) t WHERE t.rn <= :limit", nativeQuery = true)
+    List<Long> findLatestIdsByItemIds(@Param("itemIds") Collection<Long> itemIds, @Param("limit") int limit);
+
+    @EntityGraph(attributePaths = "author")
+    List<Comment> findByIdInOrderByIdDesc(Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.item;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Хранилище второго уровня внутри процесса: для тестов и запуска в одном экземпляре.
+ */
+public class InMemoryItemCardStore implements ItemCardStore {
+    private final Cache<String, CachedItemCard> cards;
+
+    public InMemoryItemCardStore(long maximumSize, Duration expireAfterWrite) {
+        cards = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    @Override
+    public Optional<CachedItemCard> get(String key) {
+        return Optional.ofNullable(cards.getIfPresent(key));
+    }
+
+    @Override
+    public void put(String key, CachedItemCard card) {
+        cards.put(key, card);
+    }
+
+    @Override
+    public void evict(String key) {
+        cards.invalidate(key);
+    }
+}
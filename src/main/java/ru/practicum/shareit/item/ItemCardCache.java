@@ -0,0 +1,69 @@
+package ru.practicum.shareit.item;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dto.ItemDtoByOwner;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Двухуровневый кэш карточек вещей: локальный Caffeine и общее {@link ItemCardStore}.
+ * Карточка отдаётся из кэша, только если её отпечаток совпадает с текущим, поэтому
+ * изменения с других экземпляров не приводят к устаревшим ответам; события изменений лишь
+ * освобождают записи раньше. Отпечаток собран из версий записей, поэтому правки в базе в обход
+ * приложения, не меняющие version, он не замечает.
+ */
+@Component
+public class ItemCardCache {
+    private static final boolean[] ROLES = {true, false};
+    private final ItemCardStore store;
+    private final Cache<String, CachedItemCard> local;
+
+    public ItemCardCache(ItemCardStore store, MeterRegistry meterRegistry,
+                         @Value("${shareit.item-card.cache.local.maximum-size:10000}") long maximumSize,
+                         @Value("${shareit.item-card.cache.local.expire-after-write:5m}") Duration expireAfterWrite) {
+        this.store = store;
+        local = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "item-cards");
+    }
+
+    public ItemDtoByOwner get(long itemId, boolean owner, String fingerprint, Supplier<ItemDtoByOwner> loader) {
+        String key = key(itemId, owner);
+        CachedItemCard cached = local.getIfPresent(key);
+        if (cached != null && cached.getFingerprint().equals(fingerprint)) {
+            return cached.getCard();
+        }
+        cached = store.get(key)
+                .filter(card -> card.getFingerprint().equals(fingerprint))
+                .orElse(null);
+        if (cached == null) {
+            cached = new CachedItemCard(fingerprint, loader.get());
+            store.put(key, cached);
+        }
+        local.put(key, cached);
+        return cached.getCard();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemCardChanged(ItemCardChangedEvent event) {
+        for (boolean owner : ROLES) {
+            String key = key(event.getItemId(), owner);
+            local.invalidate(key);
+            store.evict(key);
+        }
+    }
+
+    private static String key(long itemId, boolean owner) {
+        return "item-card:" + itemId + (owner ? ":owner" : ":guest");
+    }
+}
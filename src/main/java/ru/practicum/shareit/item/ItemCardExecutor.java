@@ -0,0 +1,147 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.monitoring.QueryCounter;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class ItemCardExecutor implements DisposableBean {
+    private final Executor executor;
+    private final Duration timeout;
+
+    @Autowired
+    public ItemCardExecutor(@Value("${shareit.item-card.pool-size:3}") int poolSize,
+                            @Value("${shareit.item-card.queue-capacity:100}") int queueCapacity,
+                            @Value("${shareit.item-card.timeout:2s}") Duration timeout,
+                            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize) {
+        this(poolExecutor(checkPoolSize(poolSize, connectionPoolSize), queueCapacity), timeout);
+    }
+
+    ItemCardExecutor(Executor executor, Duration timeout) {
+        this.executor = executor;
+        this.timeout = timeout;
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        ItemCardTask<T> future = new ItemCardTask<>(QueryCounter.propagate(task));
+        try {
+            executor.execute(future);
+        } catch (RejectedExecutionException e) {
+            // задача остаётся незанятой, её выполнит вызывающий поток
+            log.debug("Очередь загрузки карточек вещей заполнена.");
+        }
+        return future;
+    }
+
+    /**
+     * Выполняет в вызывающем потоке задачи, которые пул ещё не начал: поток запроса не простаивает,
+     * пока его загрузки стоят в общей очереди за чужими.
+     */
+    public void runQueued(CompletableFuture<?>... futures) {
+        for (CompletableFuture<?> future : futures) {
+            if (future instanceof ItemCardTask) {
+                ItemCardTask<?> task = (ItemCardTask<?>) future;
+                if (executor instanceof ThreadPoolTaskExecutor) {
+                    ((ThreadPoolTaskExecutor) executor).getThreadPoolExecutor().remove(task);
+                }
+                task.run();
+            }
+        }
+    }
+
+    /**
+     * Возвращает результат параллельной загрузки. Уже начатую задачу вызывающий поток ждёт не дольше
+     * тайм-аута, а затем, как и после ошибки, загружает данные сам.
+     */
+    public <T> T resultOrLoad(CompletableFuture<T> future, Supplier<T> loader) {
+        if (future instanceof ItemCardTask && ((ItemCardTask<?>) future).claim()) {
+            return loader.get();
+        }
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Загрузка карточки вещи не уложилась в {} мс.", timeout.toMillis());
+        } catch (ExecutionException e) {
+            log.warn("Ошибка параллельной загрузки карточки вещи.", e.getCause());
+        } catch (CancellationException e) {
+            log.debug("Загрузка карточки вещи отменена.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return loader.get();
+    }
+
+    @Override
+    public void destroy() {
+        if (executor instanceof ThreadPoolTaskExecutor) {
+            ((ThreadPoolTaskExecutor) executor).shutdown();
+        }
+    }
+
+    private static int checkPoolSize(int poolSize, int connectionPoolSize) {
+        if (poolSize >= connectionPoolSize) {
+            throw new IllegalStateException("Пул загрузки карточек (" + poolSize
+                    + ") должен быть меньше пула соединений (" + connectionPoolSize + ").");
+        }
+        return poolSize;
+    }
+
+    private static ThreadPoolTaskExecutor poolExecutor(int poolSize, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("item-card-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    private static class ItemCardTask<T> extends CompletableFuture<T> implements Runnable {
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final Supplier<T> task;
+
+        ItemCardTask(Supplier<T> task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            if (!claim()) {
+                return;
+            }
+            try {
+                complete(task.get());
+            } catch (Throwable e) {
+                completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            claim();
+            return super.cancel(mayInterruptIfRunning);
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
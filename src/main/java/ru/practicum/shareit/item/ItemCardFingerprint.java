@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item;
+
+/**
+ * Отпечаток состояния карточки вещи и роль того, кто её запрашивает, из одного запроса к базе.
+ */
+public interface ItemCardFingerprint {
+    String getFingerprint();
+
+    Boolean getOwner();
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item;
+
+import java.util.Optional;
+
+/**
+ * Общий для всех экземпляров приложения уровень кэша карточек вещей (например, Redis).
+ */
+public interface ItemCardStore {
+    Optional<CachedItemCard> get(String key);
+
+    void put(String key, CachedItemCard card);
+
+    void evict(String key);
+}
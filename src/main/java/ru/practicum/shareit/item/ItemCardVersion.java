@@ -0,0 +1,28 @@
+package ru.practicum.shareit.item;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.ETags;
+
+import java.time.LocalDateTime;
+
+/**
+ * Состояние карточки вещи для пользователя на момент запроса. Считается один раз и служит
+ * и для ETag, и для проверки кэша карточек.
+ */
+@Getter
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ItemCardVersion {
+    Long itemId;
+    Long userId;
+    LocalDateTime at;
+    String fingerprint;
+    boolean owner;
+
+    public String getETag() {
+        return ETags.of("item/" + itemId, fingerprint);
+    }
+}
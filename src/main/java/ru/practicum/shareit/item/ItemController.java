@@ -2,14 +2,22 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoByOwner;
+import ru.practicum.shareit.item.dto.ItemImportResult;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -18,13 +26,25 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ItemController {
     public static final String HEADER = "X-Sharer-User-Id";
+    private static final CacheControl CARD_CACHE = CacheControl.noCache().cachePrivate();
     private final ItemService itemService;
+    private final ItemImporter itemImporter;
 
     @PostMapping
     public ItemDto saveItem(@RequestHeader(HEADER) Long userId, @Valid @RequestBody ItemDto dto) {
         return itemService.saveItem(dto, userId);
     }
 
+    @PostMapping("/batch")
+    public List<ItemDto> saveItems(@RequestHeader(HEADER) Long userId, @RequestBody List<@Valid ItemDto> dtos) {
+        return itemService.saveItems(dtos, userId);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ItemImportResult importItems(@RequestHeader(HEADER) Long userId, InputStream body) throws IOException {
+        return itemImporter.importItems(body, userId);
+    }
+
     @PatchMapping("{itemId}")
     public ItemDto updateItem(@RequestHeader(HEADER) Long userId, @RequestBody ItemDto dto,
                               @PathVariable Long itemId) {
@@ -38,8 +58,14 @@ public class ItemController {
     }
 
     @GetMapping("{itemId}")
-    public ItemDtoByOwner findItemById(@RequestHeader(HEADER) Long userId, @PathVariable Long itemId) {
-        return itemService.getItemById(userId, itemId);
+    public ResponseEntity<ItemDtoByOwner> findItemById(@RequestHeader(HEADER) Long userId, @PathVariable Long itemId,
+                                                       WebRequest request) {
+        ItemCardVersion version = itemService.getItemCardVersion(userId, itemId);
+        if (request.checkNotModified(version.getETag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CARD_CACHE).varyBy(HEADER).build();
+        }
+        return ResponseEntity.ok().cacheControl(CARD_CACHE).varyBy(HEADER)
+                .body(itemService.getItemById(version));
     }
 
     @GetMapping
@@ -50,8 +76,10 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public List<ItemDto> findItemByDescription(@RequestParam(required = false) String text) {
-        return itemService.getUserItemByText(text);
+    public List<ItemDto> findItemByDescription(@RequestParam(required = false) String text,
+                                               @RequestParam(defaultValue = "0", required = false) @Min(0) int from,
+                                               @RequestParam(defaultValue = "10", required = false) @Min(1) int size) {
+        return itemService.getUserItemByText(text, from, size);
     }
 
     @PostMapping("{itemId}/comment")
@@ -59,4 +87,11 @@ public class ItemController {
                                  @PathVariable Long itemId) {
         return itemService.addComment(commentDto, userId, itemId);
     }
+
+    @GetMapping("{itemId}/comments")
+    public List<CommentDto> findComments(@PathVariable Long itemId,
+                                         @RequestParam(required = false) Long cursor,
+                                         @RequestParam(defaultValue = "10", required = false) @Min(1) int size) {
+        return itemService.getComments(itemId, cursor, size);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,155 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.ObjectMapper;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportError;
+import ru.practicum.shareit.item.dto.ItemImportResult;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class ItemImporter {
+    static final int CHUNK_SIZE = 500;
+    static final int MAX_REPORTED_ERRORS = 1000;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader itemReader;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ItemImporter(ItemRepository itemRepository, UserRepository userRepository,
+                        ItemRequestRepository itemRequestRepository, Validator validator,
+                        PlatformTransactionManager transactionManager,
+                        com.fasterxml.jackson.databind.ObjectMapper jsonMapper) {
+        this.itemRepository = itemRepository;
+        this.userRepository = userRepository;
+        this.itemRequestRepository = itemRequestRepository;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.itemReader = jsonMapper.readerFor(ItemDto.class);
+    }
+
+    public ItemImportResult importItems(InputStream body, Long ownerId) throws IOException {
+        if (!userRepository.existsById(ownerId)) {
+            throw new NotFoundException("Пользователь c id " + ownerId + " не найден.");
+        }
+        ItemImportResult result = new ItemImportResult();
+        List<Line> chunk = new ArrayList<>(CHUNK_SIZE);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            String text;
+            while ((text = reader.readLine()) != null) {
+                lineNumber++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                ItemDto dto = parse(text, lineNumber, result);
+                if (dto != null) {
+                    chunk.add(new Line(lineNumber, dto));
+                }
+                if (chunk.size() == CHUNK_SIZE) {
+                    saveChunk(chunk, ownerId, result);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            saveChunk(chunk, ownerId, result);
+        }
+        log.info("Импорт вещей пользователя {}: добавлено {}, отклонено {}.", ownerId, result.getImported(),
+                result.getFailed());
+        return result;
+    }
+
+    private ItemDto parse(String text, long lineNumber, ItemImportResult result) {
+        ItemDto dto;
+        try {
+            dto = itemReader.readValue(text);
+        } catch (JsonProcessingException e) {
+            reject(result, lineNumber, "Некорректный JSON.");
+            return null;
+        }
+        Set<ConstraintViolation<ItemDto>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            reject(result, lineNumber, violations.stream()
+                    .sorted(Comparator.comparing(v -> v.getPropertyPath().toString()))
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .collect(Collectors.joining("; ")));
+            return null;
+        }
+        return dto;
+    }
+
+    private void saveChunk(List<Line> chunk, Long ownerId, ItemImportResult result) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, ItemRequest> requests = ItemService.findRequests(itemRequestRepository, chunk.stream()
+                    .map(line -> line.dto)
+                    .collect(Collectors.toList()));
+            User owner = userRepository.getReferenceById(ownerId);
+            List<Item> items = new ArrayList<>(chunk.size());
+            for (Line line : chunk) {
+                ItemRequest request;
+                try {
+                    request = ItemService.requestOf(requests, line.dto);
+                } catch (NotFoundException e) {
+                    reject(result, line.number, e.getMessage());
+                    continue;
+                }
+                Item item = ObjectMapper.toItem(line.dto, request);
+                item.setOwner(owner);
+                items.add(item);
+            }
+            itemRepository.saveAll(items);
+            entityManager.flush();
+            entityManager.clear();
+            result.setImported(result.getImported() + items.size());
+        });
+    }
+
+    private static void reject(ItemImportResult result, long lineNumber, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new ItemImportError(lineNumber, message));
+        }
+    }
+
+    private static class Line {
+        final long number;
+        final ItemDto dto;
+
+        Line(long number, ItemDto dto) {
+            this.number = number;
+            this.dto = dto;
+        }
+    }
+}
@@ -2,23 +2,61 @@ package ru.practicum.shareit.item;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = :itemId")
+    Optional<Item> findByIdForUpdate(@Param("itemId") Long itemId);
+
     List<Item> findItemsByOwnerId(Long ownerId);
 
     Page<Item> findItemsByOwnerId(Long ownerId, Pageable pageable);
 
+    boolean existsByOwnerId(Long ownerId);
+
+    boolean existsByIdAndOwnerId(Long id, Long ownerId);
+
     List<Item> findByRequestId(Long requestId);
 
-    List<Item> findByRequestIdIn(List<Long> requestIds);
+    @Modifying
+    @Query("update Item i set i.commentCount = i.commentCount + 1 where i.id = :itemId")
+    void incrementCommentCount(@Param("itemId") Long itemId);
 
-    List<Item> findByAvailableTrueAndDescriptionContainingIgnoreCaseOrNameContainingIgnoreCase(String text, String texts);
+    List<Item> findByRequestIdIn(List<Long> requestIds);
 
-    Page<Item> findByAvailableTrueAndDescriptionContainingIgnoreCaseOrNameContainingIgnoreCase(
-            String text, String texts, Pageable pageable);
+    @Query(value = "SELECT CONCAT(i.version, '-', " +
+            "i.comment_count, '-', " +
+            "(SELECT SUM(u.version) FROM comments c JOIN users u ON u.user_id = c.author_id " +
+            "WHERE c.item_id = i.item_id AND c.comment_id >= COALESCE((SELECT l.comment_id FROM comments l " +
+            "WHERE l.item_id = i.item_id ORDER BY l.comment_id DESC LIMIT 1 OFFSET :comments - 1), 0)), '-', " +
+            "(SELECT CONCAT(b.booking_id, '.', b.version) FROM bookings b WHERE b.item_id = i.item_id " +
+            "AND i.owner_id = :userId AND b.start_time < :now AND b.status <> 'REJECTED' " +
+            "ORDER BY b.start_time DESC, b.booking_id DESC LIMIT 1), '-', " +
+            "(SELECT CONCAT(b.booking_id, '.', b.version) FROM bookings b WHERE b.item_id = i.item_id " +
+            "AND i.owner_id = :userId AND b.start_time > :now AND b.status <> 'REJECTED' " +
+            "ORDER BY b.start_time, b.booking_id LIMIT 1)) AS fingerprint, " +
+            "CASE WHEN i.owner_id = :userId THEN TRUE ELSE FALSE END AS owner " +
+            "FROM items i WHERE i.item_id = :itemId", nativeQuery = true)
+    Optional<ItemCardFingerprint> findCardFingerprint(@Param("itemId") Long itemId, @Param("userId") Long userId,
+                                                      @Param("now") LocalDateTime now,
+                                                      @Param("comments") int comments);
+
+    @Query("select i from Item i " +
+            "where i.available = true " +
+            "and (lower(i.name) like :pattern escape '\\' or lower(i.description) like :pattern escape '\\') " +
+            "order by case when lower(i.name) like :pattern escape '\\' then 0 else 1 end, i.id")
+    Slice<Item> search(@Param("pattern") String pattern, Pageable pageable);
 }
 
@@ -4,36 +4,79 @@ import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoByOwner;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public interface ItemService {
     ItemDto saveItem(ItemDto itemDto, Long ownerId);
 
+    List<ItemDto> saveItems(List<ItemDto> itemDtos, Long ownerId);
+
     ItemDto updateItem(ItemDto itemDto, Long itemId, Long ownerId);
 
     void deleteItem(long userId, long itemId);
 
     ItemDtoByOwner getItemById(Long userId, Long itemId);
 
+    ItemDtoByOwner getItemById(ItemCardVersion version);
+
+    ItemCardVersion getItemCardVersion(Long userId, Long itemId);
+
     List<ItemDtoByOwner> findByOwnerId(Long userId, int from, int size);
 
-    List<ItemDto> getUserItemByText(String text);
+    List<ItemDto> getUserItemByText(String text, int from, int size);
 
     CommentDto addComment(CommentDto commentDto, long userId, long itemId);
 
+    List<CommentDto> getComments(Long itemId, Long cursor, int size);
+
     static void checkItemExists(ItemRepository itemRepository, long itemId) {
         if (!itemRepository.existsById(itemId)) {
             throw new NotFoundException("Вещь с указанным айди не найдена.");
         }
     }
 
+    /**
+     * Загружает запросы, на которые ссылаются новые вещи, одним обращением к базе. Неизвестный requestId —
+     * ошибка самой вещи: {@link #requestOf} бросает {@link NotFoundException}. Импорт отклоняет такую строку,
+     * одиночное и пакетное добавление — весь вызов.
+     */
+    static Map<Long, ItemRequest> findRequests(ItemRequestRepository itemRequestRepository,
+                                               Collection<ItemDto> dtos) {
+        Set<Long> requestIds = dtos.stream()
+                .map(ItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (requestIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return itemRequestRepository.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+    }
+
+    static ItemRequest requestOf(Map<Long, ItemRequest> requests, ItemDto dto) {
+        Long requestId = dto.getRequestId();
+        if (requestId == null) {
+            return null;
+        }
+        ItemRequest request = requests.get(requestId);
+        if (request == null) {
+            throw new NotFoundException("Запрос c id " + requestId + " не найден.");
+        }
+        return request;
+    }
+
     static void checkItemAccess(ItemRepository itemRepository, long userId, long itemId) {
-        Item item = itemRepository.getReferenceById(itemId);
-        Long ownerId = item.getOwner().getId();
-        if (!Objects.equals(userId, ownerId)) {
+        if (!itemRepository.existsByIdAndOwnerId(itemId, userId)) {
             throw new NotFoundException("Редактировать может только владелец.");
         }
     }
@@ -2,12 +2,16 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.ObjectMapper;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.CompletedRentals;
 import ru.practicum.shareit.booking.Status;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.exceptions.NotFoundException;
@@ -23,9 +27,14 @@ import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
@@ -33,21 +42,50 @@ import java.util.stream.Collectors;
 @Service
 @Slf4j
 public class ItemServiceImpl implements ItemService {
+    static final int MAX_SEARCH_PAGE_SIZE = 100;
+    static final int MAX_COMMENTS_PAGE_SIZE = 100;
+    static final int CARD_COMMENTS = 10;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final CommentRepository commentRepository;
     private final BookingRepository bookingRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemCardExecutor itemCardExecutor;
+    private final CompletedRentals completedRentals;
+    private final ItemCardCache itemCardCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public ItemDto saveItem(ItemDto itemDto, Long ownerId) {
-        User user = userRepository.findById(ownerId).orElseThrow(() ->
-                new NotFoundException("Пользователь c id " + ownerId + " не найден."));
-        Item item = ObjectMapper.toItem(itemDto, doRequest(itemDto));
-        item.setOwner(user);
-        itemRepository.save(item);
-        log.info("Добавлена вещь c id {}", item.getId());
-        return ObjectMapper.toItemDto(item);
+        if (!userRepository.existsById(ownerId)) {
+            throw new NotFoundException("Пользователь c id " + ownerId + " не найден.");
+        }
+        Item item = ObjectMapper.toItem(itemDto, ItemService.requestOf(
+                ItemService.findRequests(itemRequestRepository, List.of(itemDto)), itemDto));
+        item.setOwner(userRepository.getReferenceById(ownerId));
+        Item savedItem = itemRepository.save(item);
+        log.info("Добавлена вещь c id {}", savedItem.getId());
+        return ObjectMapper.toItemDto(savedItem);
+    }
+
+    @Override
+    public List<ItemDto> saveItems(List<ItemDto> itemDtos, Long ownerId) {
+        if (!userRepository.existsById(ownerId)) {
+            throw new NotFoundException("Пользователь c id " + ownerId + " не найден.");
+        }
+        Map<Long, ItemRequest> requests = ItemService.findRequests(itemRequestRepository, itemDtos);
+        User owner = userRepository.getReferenceById(ownerId);
+        List<Item> items = new ArrayList<>(itemDtos.size());
+        for (ItemDto dto : itemDtos) {
+            Item item = ObjectMapper.toItem(dto, ItemService.requestOf(requests, dto));
+            item.setOwner(owner);
+            items.add(item);
+        }
+        itemRepository.saveAll(items);
+        log.info("Добавлено вещей: {}", items.size());
+        return items.stream()
+                .map(ObjectMapper::toItemDto)
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -68,6 +106,7 @@ public class ItemServiceImpl implements ItemService {
                         })
                         .orElseThrow(() -> new RuntimeException("Ошибка при обновлении вещи c id " + itemId))
         );
+        eventPublisher.publishEvent(new ItemCardChangedEvent(itemId));
         log.info("Обновлена вещь c id {}", newItem.getId());
         return ObjectMapper.toItemDto(newItem);
     }
@@ -78,22 +117,86 @@ public class ItemServiceImpl implements ItemService {
                 "Вещь c id " + itemId + " не найдена."));
         ItemService.checkItemAccess(itemRepository, userId, itemId);
         itemRepository.deleteById(itemId);
+        eventPublisher.publishEvent(new ItemCardChangedEvent(itemId));
         log.info("Удалена вещь с id {}", itemId);
     }
 
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public ItemDtoByOwner getItemById(Long userId, Long itemId) {
-        Item item = itemRepository.findById(itemId).orElseThrow(() -> new NotFoundException(
-                "Вещь c id " + itemId + " не найдена."));
-        List<Comment> comments = commentRepository.findByItemId(itemId);
-        LocalDateTime now = LocalDateTime.now();
-        List<Booking> lastBookings = bookingRepository.findByItemIdAndItemOwnerIdAndStartIsBeforeAndStatusIsNot(itemId, userId,
-                now, Status.REJECTED);
-        List<Booking> nextBookings = bookingRepository.findByItemIdAndItemOwnerIdAndStartIsAfterAndStatusIsNot(itemId, userId,
-                now, Status.REJECTED);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // карточка с незафиксированными изменениями вызывающей транзакции не должна попасть в общий кэш
+            ItemDtoByOwner itemDto = assembleItemCard(userId, itemId, LocalDateTime.now());
+            log.info("Найдена вещь с id {}", itemId);
+            return itemDto;
+        }
+        return getItemById(getItemCardVersion(userId, itemId));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public ItemDtoByOwner getItemById(ItemCardVersion version) {
+        Long userId = version.getUserId();
+        Long itemId = version.getItemId();
+        ItemDtoByOwner itemDto;
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            itemDto = assembleItemCard(userId, itemId, version.getAt());
+        } else {
+            itemDto = itemCardCache.get(itemId, version.isOwner(), version.getFingerprint(),
+                    () -> assembleItemCard(userId, itemId, version.getAt()));
+        }
         log.info("Найдена вещь с id {}", itemId);
-        return ObjectMapper.toItemDtoByOwner(item,
-                lastBookings, nextBookings, comments);
+        return itemDto;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ItemCardVersion getItemCardVersion(Long userId, Long itemId) {
+        LocalDateTime now = LocalDateTime.now();
+        ItemCardFingerprint fingerprint = itemRepository.findCardFingerprint(itemId, userId, now, CARD_COMMENTS)
+                .orElseThrow(() -> new NotFoundException("Вещь c id " + itemId + " не найдена."));
+        return new ItemCardVersion(itemId, userId, now, fingerprint.getFingerprint(), fingerprint.getOwner());
+    }
+
+    private ItemDtoByOwner assembleItemCard(Long userId, Long itemId, LocalDateTime now) {
+        Supplier<List<Comment>> comments = () -> commentRepository.findByItemIdOrderByIdDesc(itemId,
+                PageRequest.of(0, CARD_COMMENTS));
+        Supplier<Booking> lastBooking = () -> bookingRepository
+                .findFirstByItemIdAndItemOwnerIdAndStartIsBeforeAndStatusIsNotOrderByStartDescIdDesc(itemId, userId,
+                        now, Status.REJECTED);
+        Supplier<Booking> nextBooking = () -> bookingRepository
+                .findFirstByItemIdAndItemOwnerIdAndStartIsAfterAndStatusIsNotOrderByStartAscIdAsc(itemId, userId,
+                        now, Status.REJECTED);
+        ItemDtoByOwner itemDto;
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // параллельные запросы не увидят незафиксированные изменения вызывающей транзакции
+            itemDto = ObjectMapper.toItemDtoByOwner(findItem(itemId), lastBooking.get(), nextBooking.get(),
+                    comments.get());
+        } else {
+            CompletableFuture<List<Comment>> commentsFuture = itemCardExecutor.supply(comments);
+            CompletableFuture<Booking> lastFuture = itemCardExecutor.supply(lastBooking);
+            CompletableFuture<Booking> nextFuture = itemCardExecutor.supply(nextBooking);
+            Item item;
+            try {
+                item = findItem(itemId);
+            } catch (NotFoundException e) {
+                commentsFuture.cancel(false);
+                lastFuture.cancel(false);
+                nextFuture.cancel(false);
+                throw e;
+            }
+            itemCardExecutor.runQueued(lastFuture, nextFuture, commentsFuture);
+            itemDto = ObjectMapper.toItemDtoByOwner(item,
+                    itemCardExecutor.resultOrLoad(lastFuture, lastBooking),
+                    itemCardExecutor.resultOrLoad(nextFuture, nextBooking),
+                    itemCardExecutor.resultOrLoad(commentsFuture, comments));
+        }
+        return itemDto;
+    }
+
+    private Item findItem(Long itemId) {
+        return itemRepository.findById(itemId).orElseThrow(() -> new NotFoundException(
+                "Вещь c id " + itemId + " не найдена."));
     }
 
     @Override
@@ -101,32 +204,45 @@ public class ItemServiceImpl implements ItemService {
     public List<ItemDtoByOwner> findByOwnerId(Long userId, int from, int size) {
         PageRequest page = PageRequest.of(from / size, size);
         Page<Item> userItems = itemRepository.findItemsByOwnerId(userId, page);
-        List<Comment> comments = commentRepository.findByItemIdIn(userItems.stream()
+        if (userItems.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> itemIds = userItems.stream()
                 .map(Item::getId)
-                .collect(Collectors.toList()));
+                .collect(Collectors.toList());
+        Map<Long, List<Comment>> comments = new HashMap<>();
+        List<Long> commentIds = commentRepository.findLatestIdsByItemIds(itemIds, CARD_COMMENTS);
+        if (!commentIds.isEmpty()) {
+            for (Comment comment : commentRepository.findByIdInOrderByIdDesc(commentIds)) {
+                comments.computeIfAbsent(comment.getItem().getId(), id -> new ArrayList<>()).add(comment);
+            }
+        }
         LocalDateTime now = LocalDateTime.now();
+        Map<Long, Booking> lastBookings = new HashMap<>();
+        Map<Long, Booking> nextBookings = new HashMap<>();
+        // строки идут по возрастанию id: при равном начале последним остаётся бронирование с большим id,
+        // ближайшим — с меньшим, как в запросах карточки вещи
+        for (Booking booking : bookingRepository.findLastAndNextBookingsByItemIds(itemIds, now, Status.REJECTED)) {
+            if (booking.getStart().isBefore(now)) {
+                lastBookings.put(booking.getItem().getId(), booking);
+            } else {
+                nextBookings.putIfAbsent(booking.getItem().getId(), booking);
+            }
+        }
         log.info("Найден список вещей пользователя с id {}", userId);
-        return userItems.stream()
-                .map(item -> {
-                    List<Booking> pastBookings = bookingRepository.findByItemIdAndItemOwnerIdAndStartIsBeforeAndStatusIsNot(
-                            item.getId(), userId, now, Status.REJECTED, page
-                    ).getContent();
-                    List<Booking> futureBookings = bookingRepository.findByItemIdAndItemOwnerIdAndStartIsAfterAndStatusIsNot(
-                            item.getId(), userId, now, Status.REJECTED, page
-                    ).getContent();
-                    return ObjectMapper.toItemDtoByOwner(item, pastBookings, futureBookings, comments);
-                })
-                .collect(Collectors.toList());
+        return ObjectMapper.toItemDtosByOwner(userItems.getContent(), lastBookings, nextBookings, comments);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<ItemDto> getUserItemByText(String text) {
+    public List<ItemDto> getUserItemByText(String text, int from, int size) {
         if (text.isBlank()) {
             return Collections.emptyList();
         }
+        int pageSize = Math.min(size, MAX_SEARCH_PAGE_SIZE);
+        PageRequest page = PageRequest.of(from / pageSize, pageSize);
         log.info("Список вещей по запросу {}", text);
-        return itemRepository.findByAvailableTrueAndDescriptionContainingIgnoreCaseOrNameContainingIgnoreCase(text, text)
+        return itemRepository.search(toSearchPattern(text), page)
                 .stream()
                 .map(ObjectMapper::toItemDto)
                 .collect(Collectors.toList());
@@ -138,26 +254,40 @@ public class ItemServiceImpl implements ItemService {
                 "Пользователь c id " + userId + " не найден."));
         Item item = itemRepository.findById(itemId).orElseThrow(() -> new ValidationException(
                 "Вещь c id " + itemId + " не найдена."));
-        Booking booking = bookingRepository
-                .findTopByStatusNotLikeAndBookerIdAndItemIdOrderByEndAsc(Status.REJECTED, userId, itemId);
+        Optional<LocalDateTime> rentalEnd = completedRentals.firstEnd(userId, itemId);
         Comment comment = ObjectMapper.toComment(commentDto, user, item);
-        if (booking == null) {
+        if (rentalEnd.isEmpty()) {
             throw new ValidationException(String
                     .format("Пользователь %s не пользовался вещью %s.", user.getName(), item.getName()));
         }
-        if (comment.getCreated().isBefore(booking.getEnd())) {
+        if (comment.getCreated().isBefore(rentalEnd.get())) {
             throw new ValidationException("Завершите аренду для написания комментария.");
         }
-        log.info("Добавлен комментарий c id {}", comment.getId());
-        return ObjectMapper.toCommentDto(commentRepository.save(comment));
+        Comment savedComment = commentRepository.save(comment);
+        itemRepository.incrementCommentCount(itemId);
+        eventPublisher.publishEvent(new ItemCardChangedEvent(itemId));
+        log.info("Добавлен комментарий c id {}", savedComment.getId());
+        return ObjectMapper.toCommentDto(savedComment);
     }
 
-    private ItemRequest doRequest(ItemDto dto) {
-        ItemRequest request = null;
-        if (dto.getRequestId() != null) {
-            request = itemRequestRepository.findById(dto.getRequestId())
-                    .orElseThrow(() -> new NotFoundException("Запрос c id " + dto.getRequestId() + " не найден."));
-        }
-        return request;
+    @Override
+    @Transactional(readOnly = true)
+    public List<CommentDto> getComments(Long itemId, Long cursor, int size) {
+        ItemService.checkItemExists(itemRepository, itemId);
+        PageRequest page = PageRequest.of(0, Math.min(size, MAX_COMMENTS_PAGE_SIZE));
+        List<Comment> comments = cursor == null
+                ? commentRepository.findByItemIdOrderByIdDesc(itemId, page)
+                : commentRepository.findByItemIdAndIdLessThanOrderByIdDesc(itemId, cursor, page);
+        return comments.stream()
+                .map(ObjectMapper::toCommentDto)
+                .collect(Collectors.toList());
+    }
+
+    private String toSearchPattern(String text) {
+        String escaped = text.toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
     }
 }
\ No newline at end of file
@@ -22,4 +22,5 @@ public class ItemDtoByOwner {
     BookingDto lastBooking;
     BookingDto nextBooking;
     List<CommentDto> comments;
+    Integer commentCount;
 }
\ No newline at end of file
@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 public class Comment {
     public static final int MAX_TEXT_LENGTH = 512;
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comments_seq")
+    @SequenceGenerator(name = "comments_seq", sequenceName = "comments_seq", allocationSize = 50)
     @Column(name = "comment_id")
     Long id;
     @Column(nullable = false, length = MAX_TEXT_LENGTH)
@@ -17,7 +17,8 @@ import javax.persistence.*;
 public class Item {
     public static final int MAX_DESCRIPTION_LENGTH = 512;
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     @Column(name = "item_id")
     Long id;
     @Column(name = "item_name", nullable = false)
@@ -32,4 +33,9 @@ public class Item {
     @ManyToOne(cascade = CascadeType.ALL)
     @JoinColumn(name = "request_id")
     ItemRequest request;
+    @Column(name = "comment_count", insertable = false, updatable = false)
+    Integer commentCount;
+    @Version
+    @Column(nullable = false)
+    Long version;
 }
\ No newline at end of file
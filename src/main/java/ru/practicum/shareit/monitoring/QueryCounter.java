@@ -0,0 +1,53 @@
+package ru.practicum.shareit.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Считает SQL-запросы текущего HTTP-запроса. Счётчик общий для всех потоков, которые работают на запрос:
+ * задачи, переданные в пул через {@link #propagate}, засчитывают свои запросы вызвавшему их запросу.
+ */
+public class QueryCounter implements StatementInspector {
+    private static final ThreadLocal<AtomicLong> COUNT = ThreadLocal.withInitial(AtomicLong::new);
+
+    public static void reset() {
+        COUNT.set(new AtomicLong());
+    }
+
+    public static long count() {
+        return COUNT.get().get();
+    }
+
+    public static void clear() {
+        COUNT.remove();
+    }
+
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        AtomicLong count = COUNT.get();
+        return () -> {
+            AtomicLong previous = COUNT.get();
+            COUNT.set(count);
+            try {
+                return task.get();
+            } finally {
+                COUNT.set(previous);
+            }
+        };
+    }
+
+    static AtomicLong current() {
+        return COUNT.get();
+    }
+
+    static void bind(AtomicLong count) {
+        COUNT.set(count);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get().incrementAndGet();
+        return sql;
+    }
+}
@@ -1,14 +1,19 @@
 package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDtoByOwner;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
 import java.util.List;
+import java.util.Optional;
 
 import static ru.practicum.shareit.item.ItemController.HEADER;
 
@@ -17,6 +22,7 @@ import static ru.practicum.shareit.item.ItemController.HEADER;
 @RequiredArgsConstructor
 @Validated
 public class ItemRequestController {
+    private static final CacheControl REQUEST_CACHE = CacheControl.noCache().cachePrivate();
     private final ItemRequestService itemRequestService;
 
     @PostMapping
@@ -40,8 +46,13 @@ public class ItemRequestController {
     }
 
     @GetMapping("/{requestId}")
-    public ItemRequestDtoByOwner getRequestById(@RequestHeader(HEADER) Long userId,
-                                                @PathVariable Long requestId) {
-        return itemRequestService.getRequestById(userId, requestId);
+    public ResponseEntity<ItemRequestDtoByOwner> getRequestById(@RequestHeader(HEADER) Long userId,
+                                                                @PathVariable Long requestId, WebRequest request) {
+        Optional<String> eTag = itemRequestService.getRequestETag(userId, requestId);
+        if (eTag.isPresent() && request.checkNotModified(eTag.get())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REQUEST_CACHE).varyBy(HEADER).build();
+        }
+        return ResponseEntity.ok().cacheControl(REQUEST_CACHE).varyBy(HEADER)
+                .body(itemRequestService.getRequestById(userId, requestId));
     }
 }
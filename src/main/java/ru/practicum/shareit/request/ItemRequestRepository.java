@@ -3,12 +3,23 @@ package ru.practicum.shareit.request;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
     List<ItemRequest> findAllByRequesterId(Long userId);
 
     Page<ItemRequest> findAllByRequesterIdNot(Long userId, PageRequest request);
+
+    @Query(value = "SELECT CONCAT(r.version, '-', u.version, '-', " +
+            "(SELECT COUNT(*) FROM items i WHERE i.request_id = r.request_id), '-', " +
+            "(SELECT SUM(i.version) FROM items i WHERE i.request_id = r.request_id), '-', " +
+            "(SELECT MAX(i.item_id) FROM items i WHERE i.request_id = r.request_id)) " +
+            "FROM requests r LEFT JOIN users u ON u.user_id = r.requester_id " +
+            "WHERE r.request_id = :requestId", nativeQuery = true)
+    Optional<String> findFingerprintById(@Param("requestId") Long requestId);
 }
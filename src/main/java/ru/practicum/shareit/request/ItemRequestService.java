@@ -4,6 +4,7 @@ import ru.practicum.shareit.request.dto.ItemRequestDtoByOwner;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestService {
     ItemRequestDto addRequest(ItemRequestDto itemRequestDto, Long userId);
@@ -13,4 +14,6 @@ public interface ItemRequestService {
     List<ItemRequestDtoByOwner> getAllRequests(Long userId, int from, int size);
 
     ItemRequestDtoByOwner getRequestById(Long userId, Long requestId);
+
+    Optional<String> getRequestETag(Long userId, Long requestId);
 }
\ No newline at end of file
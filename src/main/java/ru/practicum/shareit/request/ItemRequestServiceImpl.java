@@ -7,6 +7,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.ETags;
 import ru.practicum.shareit.ObjectMapper;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.ItemRepository;
@@ -15,6 +16,7 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dto.ItemRequestDtoByOwner;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.UserCache;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
@@ -30,14 +32,14 @@ import static ru.practicum.shareit.SortType.CREATED;
 public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository requestRepository;
     private final UserRepository userRepository;
+    private final UserCache userCache;
     private final ItemRepository itemRepository;
 
     @Override
     public ItemRequestDto addRequest(ItemRequestDto itemRequestDto, Long userId) {
         User user = userRepository.findById(userId).orElseThrow(() -> new NotFoundException(
                 String.format("Пользователь с id=%d не найден", userId)));
-        itemRequestDto.setRequester(user);
-        ItemRequest request = ObjectMapper.toItemRequest(itemRequestDto);
+        ItemRequest request = ObjectMapper.toItemRequest(itemRequestDto, user);
         ItemRequest savedRequest = requestRepository.save(request);
         log.info("Добавлен запрос c id {}", savedRequest.getId());
         return ObjectMapper.toItemRequestDto(savedRequest);
@@ -71,6 +73,14 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return ObjectMapper.toItemRequestDtoByOwner(request, reply);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> getRequestETag(Long userId, Long requestId) {
+        checkUserAvailability(userId);
+        return requestRepository.findFingerprintById(requestId)
+                .map(fingerprint -> ETags.of("request/" + requestId, fingerprint));
+    }
+
     private List<ItemRequestDtoByOwner> findAndMap(List<ItemRequest> requests) {
         List<Long> requestIds = requests.stream()
                 .map(ItemRequest::getId)
@@ -88,7 +98,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     }
 
     public void checkUserAvailability(long id) {
-        if (!userRepository.existsById(id)) {
+        if (!userCache.exists(id)) {
             throw new NotFoundException("Пользователь с запрашиваемым id не зарегистрирован.");
         }
     }
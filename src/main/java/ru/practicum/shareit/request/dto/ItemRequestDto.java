@@ -2,7 +2,7 @@ package ru.practicum.shareit.request.dto;
 
 import lombok.*;
 import lombok.experimental.FieldDefaults;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.validation.constraints.NotBlank;
 import java.time.LocalDateTime;
@@ -16,6 +16,6 @@ public class ItemRequestDto {
     Long id;
     @NotBlank
     String description;
-    User requester;
+    UserDto requester;
     LocalDateTime created = LocalDateTime.now();
 }
@@ -3,7 +3,7 @@ package ru.practicum.shareit.request.dto;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 import ru.practicum.shareit.item.dto.ItemDto;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.dto.UserDto;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -16,7 +16,7 @@ import java.util.List;
 public class ItemRequestDtoByOwner {
     Long id;
     String description;
-    User requester;
+    UserDto requester;
     LocalDateTime created;
     List<ItemDto> items;
 }
@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 public class ItemRequest {
     public static final int MAX_DESCRIPTION_LENGTH = 512;
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "requests_seq")
+    @SequenceGenerator(name = "requests_seq", sequenceName = "requests_seq", allocationSize = 50)
     @Column(name = "request_id")
     Long id;
     @Column(name = "request_description", length = MAX_DESCRIPTION_LENGTH)
@@ -27,4 +28,7 @@ public class ItemRequest {
     User requester;
     @Column(name = "creation_time")
     LocalDateTime created;
+    @Version
+    @Column(nullable = false)
+    Long version;
 }
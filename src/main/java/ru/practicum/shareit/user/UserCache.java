@@ -0,0 +1,42 @@
+package ru.practicum.shareit.user;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Недолго помнит пользователей, найденных в базе. Сброс записи виден только своему узлу, поэтому
+ * отсутствие пользователя не кэшируется, а операции, ссылающиеся на строку пользователя, проверяют базу.
+ */
+@Component
+public class UserCache {
+    private final LoadingCache<Long, Boolean> existingUsers;
+
+    public UserCache(UserRepository userRepository, MeterRegistry meterRegistry,
+                     @Value("${shareit.cache.users.maximum-size:10000}") long maximumSize,
+                     @Value("${shareit.cache.users.expire-after-write:5s}") Duration expireAfterWrite) {
+        existingUsers = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build(userId -> userRepository.existsById(userId) ? Boolean.TRUE : null);
+        CaffeineCacheMetrics.monitor(meterRegistry, existingUsers, "users");
+    }
+
+    public boolean exists(long userId) {
+        return existingUsers.get(userId) != null;
+    }
+
+    public void put(long userId) {
+        existingUsers.put(userId, true);
+    }
+
+    public void evict(long userId) {
+        existingUsers.invalidate(userId);
+    }
+}
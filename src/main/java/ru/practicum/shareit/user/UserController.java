@@ -1,12 +1,17 @@
 package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.validation.Valid;
 import java.util.List;
+import java.util.Optional;
 
 @RequiredArgsConstructor
 @RestController
@@ -21,8 +26,12 @@ public class UserController {
     }
 
     @GetMapping("/{userId}")
-    public UserDto getUserById(@PathVariable Long userId) {
-        return userService.getUserById(userId);
+    public ResponseEntity<UserDto> getUserById(@PathVariable Long userId, WebRequest request) {
+        Optional<String> eTag = userService.getUserETag(userId);
+        if (eTag.isPresent() && request.checkNotModified(eTag.get())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(userService.getUserById(userId));
     }
 
     @DeleteMapping("/{userId}")
@@ -35,6 +44,11 @@ public class UserController {
         return userService.saveUser(userDto);
     }
 
+    @PostMapping("/batch")
+    public List<UserDto> saveUsers(@RequestBody List<@Valid UserDto> userDtos) {
+        return userService.saveUsers(userDtos);
+    }
+
     @PatchMapping("/{userId}")
     public UserDto updateUser(@Valid @PathVariable Long userId,
                               @RequestBody UserDto userDto) {
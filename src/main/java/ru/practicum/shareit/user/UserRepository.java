@@ -1,7 +1,13 @@
 package ru.practicum.shareit.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.Optional;
+
 public interface UserRepository extends JpaRepository<User, Long> {
+    @Query("select u.version from User u where u.id = :userId")
+    Optional<Long> findVersionById(@Param("userId") Long userId);
 }
\ No newline at end of file
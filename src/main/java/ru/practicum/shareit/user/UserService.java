@@ -3,14 +3,19 @@ package ru.practicum.shareit.user;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface UserService {
     List<UserDto> getAllUsers();
 
     UserDto getUserById(Long userId);
 
+    Optional<String> getUserETag(Long userId);
+
     UserDto saveUser(UserDto userDto);
 
+    List<UserDto> saveUsers(List<UserDto> userDtos);
+
     UserDto updateUser(UserDto userDto, Long userId);
 
     void deleteUser(Long userId);
@@ -4,12 +4,14 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.ETags;
 import ru.practicum.shareit.ObjectMapper;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -17,6 +19,7 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final UserCache userCache;
 
     @Override
     public List<UserDto> getAllUsers() {
@@ -35,11 +38,30 @@ public class UserServiceImpl implements UserService {
         return ObjectMapper.toUserDto(user);
     }
 
+    @Override
+    public Optional<String> getUserETag(Long userId) {
+        return userRepository.findVersionById(userId)
+                .map(version -> ETags.of("user/" + userId, version));
+    }
+
     @Override
     public UserDto saveUser(UserDto userDto) {
-        User user = ObjectMapper.toUser(userDto);
+        User user = userRepository.save(ObjectMapper.toUser(userDto));
+        userCache.put(user.getId());
         log.info("Создан пользователь c id {}.", user.getId());
-        return ObjectMapper.toUserDto(userRepository.save(user));
+        return ObjectMapper.toUserDto(user);
+    }
+
+    @Override
+    public List<UserDto> saveUsers(List<UserDto> userDtos) {
+        List<User> users = userRepository.saveAll(userDtos.stream()
+                .map(ObjectMapper::toUser)
+                .collect(Collectors.toList()));
+        users.forEach(user -> userCache.put(user.getId()));
+        log.info("Создано пользователей: {}.", users.size());
+        return users.stream()
+                .map(ObjectMapper::toUserDto)
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -59,6 +81,7 @@ public class UserServiceImpl implements UserService {
     @Override
     public void deleteUser(Long userId) {
         userRepository.deleteById(userId);
+        userCache.evict(userId);
         log.info("Пользователь с id удален {}.", userId);
     }
 }
\ No newline at end of file
@@ -15,11 +15,15 @@ import javax.persistence.*;
 public class User {
     public static final int MAX_EMAIL_LENGTH = 512;
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     @Column(name = "user_id")
     Long id;
     @Column(name = "user_name", nullable = false)
     String name;
     @Column(name = "user_email", nullable = false, unique = true,length = MAX_EMAIL_LENGTH)
     String email;
+    @Version
+    @Column(nullable = false)
+    Long version;
 }
\ No newline at end of file
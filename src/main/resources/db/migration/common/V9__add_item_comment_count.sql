@@ -0,0 +1,7 @@
+ALTER TABLE items ADD COLUMN IF NOT EXISTS comment_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE items SET comment_count = (SELECT COUNT(*) FROM comments c WHERE c.item_id = items.item_id);
+
+CREATE INDEX IF NOT EXISTS comments_item_comment_idx ON comments (item_id, comment_id);
+
+DROP INDEX IF EXISTS comments_item_idx;
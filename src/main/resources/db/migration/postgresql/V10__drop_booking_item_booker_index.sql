@@ -0,0 +1 @@
+DROP INDEX IF EXISTS bookings_item_booker_end_idx;
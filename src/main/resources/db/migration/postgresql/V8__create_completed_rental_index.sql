@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS bookings_approved_item_booker_end_idx ON bookings (item_id, booker_id, end_time)
+    WHERE status = 'APPROVED';
@@ -0,0 +1,38 @@
+package ru.practicum.shareit;
+
+import lombok.experimental.FieldDefaults;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import javax.persistence.EntityManager;
+
+import static lombok.AccessLevel.PRIVATE;
+
+@DataJpaTest
+@FieldDefaults(level = PRIVATE)
+class SchemaIndexTest {
+    @Autowired
+    EntityManager entityManager;
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "SELECT * FROM bookings WHERE booker_id = 1 ORDER BY start_time DESC",
+            "SELECT * FROM bookings WHERE booker_id = 1 AND status = 'WAITING' ORDER BY start_time DESC",
+            "SELECT * FROM bookings WHERE item_id = 1 AND start_time < CURRENT_TIMESTAMP",
+            "SELECT * FROM bookings WHERE item_id = 1 AND booker_id = 2 ORDER BY end_time",
+            "SELECT MIN(end_time) FROM bookings WHERE item_id = 1 AND booker_id = 2 AND status = 'APPROVED'",
+            "SELECT b.* FROM bookings b JOIN items i ON b.item_id = i.item_id WHERE i.owner_id = 1",
+            "SELECT * FROM items WHERE owner_id = 1",
+            "SELECT * FROM items WHERE request_id = 1",
+            "SELECT * FROM comments WHERE item_id = 1",
+            "SELECT * FROM comments WHERE item_id = 1 AND comment_id < 100 ORDER BY comment_id DESC",
+            "SELECT * FROM requests WHERE requester_id = 1 ORDER BY creation_time DESC"
+    })
+    void hotQueriesUseIndexAccess(String query) {
+        String plan = String.valueOf(entityManager.createNativeQuery("EXPLAIN " + query).getSingleResult());
+        Assertions.assertThat(plan).doesNotContain("tableScan");
+    }
+}
@@ -1,42 +1,65 @@
 package ru.practicum.shareit.booking;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.experimental.FieldDefaults;
+import org.assertj.core.api.Assertions;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exceptions.ConflictException;
+import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.monitoring.QueryCounter;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 
 import static lombok.AccessLevel.PRIVATE;
 import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BookingController.class)
+@Import(SimpleMeterRegistry.class)
 @FieldDefaults(level = PRIVATE)
 public class BookingControllerTest {
     public static final String HEADER = "X-Sharer-User-Id";
+    static final String CSV_LINE = "2,2030-01-01T10:00,2030-01-02T10:00,WAITING,1,table,1,Nick\n";
     @Autowired
     ObjectMapper mapper;
     @Autowired
     MockMvc mockMvc;
     @MockBean
     BookingServiceImpl bookingService;
+    @MockBean
+    BookingExporter bookingExporter;
+    @Autowired
+    MeterRegistry meterRegistry;
     BookingDto bookingDto;
     BookingOutputDto bookingOutputDto;
 
@@ -192,6 +215,31 @@ public class BookingControllerTest {
                 );
     }
 
+    @Test
+    void succeedFindAllUsersBookingAfter() throws Exception {
+        String cursor = "2030-01-01T10:00:00,5";
+        when(bookingService.findAllUsersBookingAfter(1L, "ALL", cursor, 10))
+                .thenReturn(new SliceImpl<>(List.of(bookingOutputDto), PageRequest.of(0, 10), true));
+        mockMvc.perform(get("/bookings")
+                        .header(HEADER, 1L)
+                        .param("after", cursor))
+                .andExpectAll(
+                        status().isOk(),
+                        header().string(BookingController.NEXT_CURSOR, bookingOutputDto.getStart() + ",2"),
+                        jsonPath("$[0].id", Matchers.is(bookingOutputDto.getId()), Long.class)
+                );
+        when(bookingService.findAllBookingsForItemsAfter(1L, "ALL", cursor, 10))
+                .thenReturn(new SliceImpl<>(List.of(bookingOutputDto), PageRequest.of(0, 10), false));
+        mockMvc.perform(get("/bookings/owner")
+                        .header(HEADER, 1L)
+                        .param("after", cursor))
+                .andExpectAll(
+                        status().isOk(),
+                        header().doesNotExist(BookingController.NEXT_CURSOR),
+                        jsonPath("$[0].id", Matchers.is(bookingOutputDto.getId()), Long.class)
+                );
+    }
+
     @Test
     void succeedFindAllBookingsForItems() throws Exception {
         when(bookingService.findAllBookingsForItems(anyLong(), anyString(), anyInt(), anyInt()))
@@ -215,4 +263,88 @@ public class BookingControllerTest {
                         MockMvcResultMatchers.content().json("[]")
                 );
     }
-}
\ No newline at end of file
+
+    @Test
+    void succeedExportBookingsForItems() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write(CSV_LINE.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(bookingExporter).exportOwnerBookings(eq(1L), eq(ExportFormat.CSV), any());
+        MvcResult result = mockMvc.perform(get("/bookings/owner/export")
+                        .header(HEADER, 1L)
+                        .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpectAll(
+                        status().isOk(),
+                        MockMvcResultMatchers.content().contentType("text/csv"),
+                        MockMvcResultMatchers.content().string(CSV_LINE)
+                );
+    }
+
+    @Test
+    void exportStatementsAreCountedForRequest() throws Exception {
+        QueryCounter inspector = new QueryCounter();
+        doAnswer(invocation -> {
+            inspector.inspect("select 1");
+            inspector.inspect("select 2");
+            return null;
+        }).when(bookingExporter).exportOwnerBookings(eq(1L), eq(ExportFormat.NDJSON), any());
+        MvcResult result = mockMvc.perform(get("/bookings/owner/export")
+                        .header(HEADER, 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        double statementsBefore = exportStatements().totalAmount();
+        long requestsBefore = exportStatements().count();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+        Assertions.assertThat(exportStatements().count()).isEqualTo(requestsBefore + 1);
+        Assertions.assertThat(exportStatements().totalAmount()).isEqualTo(statementsBefore + 2);
+    }
+
+    @Test
+    void failExportWithUnknownFormat() throws Exception {
+        mockMvc.perform(get("/bookings/owner/export")
+                        .header(HEADER, 1L)
+                        .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+        verify(bookingExporter, never()).checkOwner(anyLong());
+    }
+
+    @Test
+    void failExportForUnknownOwner() throws Exception {
+        doThrow(new NotFoundException("Пользователь с id 1 не найден.")).when(bookingExporter).checkOwner(1L);
+        mockMvc.perform(get("/bookings/owner/export")
+                        .header(HEADER, 1L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void confirmBookingConflictReturns409() throws Exception {
+        when(bookingService.confirmBookingByOwner(anyLong(), anyLong(), anyBoolean()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, 2L));
+        mockMvc.perform(patch("/bookings/2")
+                        .header(HEADER, 1L)
+                        .param("approved", "true"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void confirmBookingIllegalTransitionReturns409() throws Exception {
+        when(bookingService.confirmBookingByOwner(anyLong(), anyLong(), anyBoolean()))
+                .thenThrow(new ConflictException("Нельзя перевести бронирование из статуса REJECTED в APPROVED."));
+        mockMvc.perform(patch("/bookings/2")
+                        .header(HEADER, 1L)
+                        .param("approved", "true"))
+                .andExpect(status().isConflict())
+                .andExpect(MockMvcResultMatchers.content()
+                        .string("Нельзя перевести бронирование из статуса REJECTED в APPROVED."));
+    }
+
+    private DistributionSummary exportStatements() {
+        return meterRegistry.summary("http.server.requests.statements",
+                "method", "GET", "uri", "/bookings/owner/export");
+    }
+}
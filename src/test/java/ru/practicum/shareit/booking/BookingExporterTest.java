@@ -0,0 +1,104 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.experimental.FieldDefaults;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static lombok.AccessLevel.PRIVATE;
+
+@SpringBootTest
+@Transactional
+@FieldDefaults(level = PRIVATE)
+class BookingExporterTest {
+    static final int BOOKINGS = 3;
+    @Autowired
+    BookingExporter bookingExporter;
+    @Autowired
+    ObjectMapper mapper;
+    @Autowired
+    EntityManager em;
+    User owner;
+    List<Booking> bookings = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        owner = User.builder().name("owner").email("owner@export.ru").build();
+        em.persist(owner);
+        User other = User.builder().name("other").email("other@export.ru").build();
+        em.persist(other);
+        User booker = User.builder().name("Smith, John").email("booker@export.ru").build();
+        em.persist(booker);
+        Item item = Item.builder().name("table").description("oak").available(true).owner(owner).build();
+        em.persist(item);
+        Item otherItem = Item.builder().name("chair").description("oak").available(true).owner(other).build();
+        em.persist(otherItem);
+        for (int i = 0; i < BOOKINGS; i++) {
+            Booking booking = Booking.builder().item(item).booker(booker).status(Status.APPROVED)
+                    .start(now.plusDays(i)).end(now.plusDays(i).plusHours(1)).build();
+            em.persist(booking);
+            bookings.add(0, booking);
+        }
+        em.persist(Booking.builder().item(otherItem).booker(booker).status(Status.WAITING)
+                .start(now).end(now.plusHours(1)).build());
+        em.flush();
+    }
+
+    @Test
+    void exportsOwnerBookingsAsNdjson() throws IOException {
+        String[] lines = export(ExportFormat.NDJSON).split("\n");
+
+        Assertions.assertThat(lines).hasSize(BOOKINGS);
+        List<Long> ids = new ArrayList<>();
+        for (String line : lines) {
+            BookingOutputDto dto = mapper.readValue(line, BookingOutputDto.class);
+            Assertions.assertThat(dto.getItem().getName()).isEqualTo("table");
+            ids.add(dto.getId());
+        }
+        Assertions.assertThat(ids).containsExactlyElementsOf(bookings.stream().map(Booking::getId)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void exportsOwnerBookingsAsCsv() throws IOException {
+        String[] lines = export(ExportFormat.CSV).split("\n");
+
+        Assertions.assertThat(lines).hasSize(BOOKINGS + 1);
+        Assertions.assertThat(lines[0]).isEqualTo(BookingExporter.CSV_HEADER);
+        Booking latest = bookings.get(0);
+        Assertions.assertThat(lines[1]).isEqualTo(latest.getId() + "," + latest.getStart() + "," + latest.getEnd()
+                + ",APPROVED," + latest.getItem().getId() + ",table," + latest.getBooker().getId() + ",\"Smith, John\"");
+    }
+
+    @Test
+    void checkOwnerFailsForUnknownUser() {
+        Assertions.assertThatThrownBy(() -> bookingExporter.checkOwner(-1L))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    private String export(ExportFormat format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bookingExporter.exportOwnerBookings(owner.getId(), format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -10,11 +10,13 @@ import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingOutputDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exceptions.AlreadyExistsException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static lombok.AccessLevel.PRIVATE;
@@ -29,7 +31,7 @@ class BookingIntegrationTest {
     BookingService bookingService;
     @Autowired
     BookingRepository bookingRepository;
-    final LocalDateTime now = LocalDateTime.now();
+    final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
     User owner;
     User booker;
     Item item1;
@@ -88,6 +90,21 @@ class BookingIntegrationTest {
         Assertions.assertThat(retrievedBooking.getItem().getId()).isEqualTo(itemId);
     }
 
+    @Test
+    void createOverlappingBookingTest() {
+        BookingDto overlapping = BookingDto.builder()
+                .itemId(item1.getId())
+                .start(now.plusHours(36)).end(now.plusDays(3))
+                .build();
+        Assertions.assertThatThrownBy(() -> bookingService.createBooking(overlapping, booker.getId()))
+                .isInstanceOf(AlreadyExistsException.class);
+        BookingDto adjacent = BookingDto.builder()
+                .itemId(item1.getId())
+                .start(now.plusDays(2)).end(now.plusDays(3))
+                .build();
+        Assertions.assertThat(bookingService.createBooking(adjacent, booker.getId())).isNotNull();
+    }
+
     @Test
     void approveTest() {
         Long userId = owner.getId();
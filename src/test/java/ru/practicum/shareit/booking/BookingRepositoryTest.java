@@ -0,0 +1,160 @@
+package ru.practicum.shareit.booking;
+
+import lombok.experimental.FieldDefaults;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import ru.practicum.shareit.SortType;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static lombok.AccessLevel.PRIVATE;
+import static ru.practicum.shareit.booking.BookingSpecifications.after;
+import static ru.practicum.shareit.booking.BookingSpecifications.byBooker;
+import static ru.practicum.shareit.booking.BookingSpecifications.byItemOwner;
+import static ru.practicum.shareit.booking.BookingSpecifications.inState;
+
+@DataJpaTest
+@FieldDefaults(level = PRIVATE)
+class BookingRepositoryTest {
+    final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    @Autowired
+    TestEntityManager entityManager;
+    @Autowired
+    BookingRepository bookingRepository;
+    User owner;
+    User booker;
+    Booking past;
+    Booking current;
+    Booking future;
+    Booking sameStartFuture;
+    Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = User.builder().name("owner").email("owner@mail.ru").build();
+        entityManager.persist(owner);
+        booker = User.builder().name("booker").email("booker@mail.ru").build();
+        entityManager.persist(booker);
+        item = Item.builder().name("table").description("green").available(true).owner(owner).build();
+        entityManager.persist(item);
+        past = Booking.builder().item(item).booker(booker).status(Status.APPROVED)
+                .start(now.minusDays(3)).end(now.minusDays(2)).build();
+        entityManager.persist(past);
+        current = Booking.builder().item(item).booker(booker).status(Status.APPROVED)
+                .start(now.minusDays(1)).end(now.plusDays(1)).build();
+        entityManager.persist(current);
+        future = Booking.builder().item(item).booker(booker).status(Status.WAITING)
+                .start(now.plusDays(2)).end(now.plusDays(3)).build();
+        entityManager.persist(future);
+        sameStartFuture = Booking.builder().item(item).booker(booker).status(Status.REJECTED)
+                .start(now.plusDays(2)).end(now.plusDays(4)).build();
+        entityManager.persist(sameStartFuture);
+    }
+
+    @Test
+    void succeedFindLastAndNextBookingAsSingleRows() {
+        Assertions.assertThat(bookingRepository
+                .findFirstByItemIdAndItemOwnerIdAndStartIsBeforeAndStatusIsNotOrderByStartDescIdDesc(item.getId(),
+                        owner.getId(), now, Status.REJECTED)).isEqualTo(current);
+        Assertions.assertThat(bookingRepository
+                .findFirstByItemIdAndItemOwnerIdAndStartIsAfterAndStatusIsNotOrderByStartAscIdAsc(item.getId(),
+                        owner.getId(), now, Status.REJECTED)).isEqualTo(future);
+        Assertions.assertThat(bookingRepository
+                .findFirstByItemIdAndItemOwnerIdAndStartIsAfterAndStatusIsNotOrderByStartAscIdAsc(item.getId(),
+                        booker.getId(), now, Status.REJECTED)).isNull();
+    }
+
+    @Test
+    void succeedFindLastAndNextBookingsWithSameStartByBookingId() {
+        Booking currentTwin = Booking.builder().item(item).booker(booker).status(Status.APPROVED)
+                .start(current.getStart()).end(now.plusDays(1)).build();
+        entityManager.persist(currentTwin);
+        Booking futureTwin = Booking.builder().item(item).booker(booker).status(Status.WAITING)
+                .start(future.getStart()).end(now.plusDays(3)).build();
+        entityManager.persist(futureTwin);
+
+        Assertions.assertThat(bookingRepository.findLastAndNextBookingsByItemIds(List.of(item.getId()), now,
+                Status.REJECTED)).containsExactly(current, future, currentTwin, futureTwin);
+        Assertions.assertThat(bookingRepository
+                .findFirstByItemIdAndItemOwnerIdAndStartIsBeforeAndStatusIsNotOrderByStartDescIdDesc(item.getId(),
+                        owner.getId(), now, Status.REJECTED)).isEqualTo(currentTwin);
+        Assertions.assertThat(bookingRepository
+                .findFirstByItemIdAndItemOwnerIdAndStartIsAfterAndStatusIsNotOrderByStartAscIdAsc(item.getId(),
+                        owner.getId(), now, Status.REJECTED)).isEqualTo(future);
+    }
+
+    @Test
+    void succeedFindFirstApprovedEnd() {
+        Assertions.assertThat(bookingRepository.findFirstEnd(booker.getId(), item.getId(), Status.APPROVED))
+                .isEqualTo(past.getEnd());
+        Assertions.assertThat(bookingRepository.findFirstEnd(owner.getId(), item.getId(), Status.APPROVED))
+                .isNull();
+    }
+
+    @Test
+    void staleBookingUpdateIsRejectedByVersion() {
+        entityManager.flush();
+        entityManager.clear();
+        Booking stale = bookingRepository.findById(future.getId()).orElseThrow();
+        entityManager.detach(stale);
+        Booking fresh = bookingRepository.findById(future.getId()).orElseThrow();
+        fresh.setStatus(Status.APPROVED);
+        entityManager.flush();
+        stale.setStatus(Status.REJECTED);
+        Assertions.assertThatThrownBy(() -> bookingRepository.saveAndFlush(stale))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+
+    @Test
+    void succeedFindPageByRoleAndState() {
+        PageRequest page = PageRequest.of(0, 10, SortType.START.getSortValue());
+        Assertions.assertThat(bookingRepository.findAll(byBooker(booker.getId())
+                .and(inState(State.PAST, now)), page)).containsExactly(past);
+        Assertions.assertThat(bookingRepository.findAll(byItemOwner(owner.getId())
+                .and(inState(State.FUTURE, now)), page)).containsExactlyInAnyOrder(future, sameStartFuture);
+        Assertions.assertThat(bookingRepository.findAll(byItemOwner(owner.getId())
+                .and(inState(State.ALL, now)), PageRequest.of(1, 3, SortType.START.getSortValue())))
+                .containsExactly(past);
+        Assertions.assertThat(bookingRepository.findAll(byItemOwner(booker.getId())
+                .and(inState(State.ALL, now)), page)).isEmpty();
+    }
+
+    @Test
+    void succeedFindSliceWalksAllBookingsByCursor() {
+        Slice<Booking> first = bookingRepository.findSlice(byBooker(booker.getId())
+                .and(inState(State.ALL, now)), 2);
+        Assertions.assertThat(first.hasNext()).isTrue();
+        Assertions.assertThat(first.getContent()).containsExactly(sameStartFuture, future);
+        Booking last = first.getContent().get(1);
+        Slice<Booking> second = bookingRepository.findSlice(byBooker(booker.getId())
+                .and(inState(State.ALL, now))
+                .and(after(new BookingCursor(last.getStart(), last.getId()))), 2);
+        Assertions.assertThat(second.hasNext()).isFalse();
+        Assertions.assertThat(second.getContent()).containsExactly(current, past);
+    }
+
+    @Test
+    void succeedFindSliceByOwnerAndState() {
+        Slice<Booking> currentSlice = bookingRepository.findSlice(byItemOwner(owner.getId())
+                .and(inState(State.CURRENT, now)), 10);
+        Assertions.assertThat(currentSlice.getContent()).containsExactly(current);
+        Slice<Booking> waitingSlice = bookingRepository.findSlice(byItemOwner(owner.getId())
+                .and(inState(State.WAITING, now)), 10);
+        Assertions.assertThat(waitingSlice.getContent()).containsExactly(future);
+        Slice<Booking> bookerSlice = bookingRepository.findSlice(byItemOwner(booker.getId())
+                .and(inState(State.ALL, now)), 10);
+        Assertions.assertThat(bookerSlice.getContent()).isEmpty();
+    }
+}
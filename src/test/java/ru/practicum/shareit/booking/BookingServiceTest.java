@@ -13,18 +13,31 @@ import lombok.experimental.FieldDefaults;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingOutputDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exceptions.AlreadyExistsException;
+import ru.practicum.shareit.exceptions.ConflictException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.UnsupportedStateException;
 import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.ItemCardChangedEvent;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserCache;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
@@ -36,7 +49,11 @@ class BookingServiceTest {
     @Mock
     UserRepository userRepository;
     @Mock
+    UserCache userCache;
+    @Mock
     ItemRepository itemRepository;
+    @Mock
+    ApplicationEventPublisher eventPublisher;
     @InjectMocks
     BookingServiceImpl service;
     static final LocalDateTime NOW = LocalDateTime.now();
@@ -83,9 +100,10 @@ class BookingServiceTest {
     @Test
     void succeedCreateBooking() {
         when(userRepository.existsById(anyLong())).thenReturn(true);
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.ofNullable(item));
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.ofNullable(item));
         when(bookingRepository.save(any())).thenReturn(booking);
         BookingOutputDto bookingOutDto = service.createBooking(bookingToSave, booker.getId());
+        verify(eventPublisher, times(1)).publishEvent(any(ItemCardChangedEvent.class));
         assertNotNull(bookingOutDto);
         assertEquals(booking.getId(), bookingOutDto.getId());
     }
@@ -118,7 +136,7 @@ class BookingServiceTest {
         long itemNotFoundId = 0L;
         bookingToSave.setItemId(itemNotFoundId);
         when(userRepository.existsById(anyLong())).thenReturn(true);
-        when(itemRepository.findById(itemNotFoundId)).thenReturn(Optional.empty());
+        when(itemRepository.findByIdForUpdate(itemNotFoundId)).thenReturn(Optional.empty());
         NotFoundException exception = assertThrows(
                 NotFoundException.class,
                 () -> service.createBooking(bookingToSave, booker.getId()));
@@ -129,7 +147,7 @@ class BookingServiceTest {
     void createBookingFailByItemNotAvailable() {
         item.setAvailable(false);
         when(userRepository.existsById(anyLong())).thenReturn(true);
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.ofNullable(item));
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.ofNullable(item));
         ValidationException exception = assertThrows(
                 ValidationException.class,
                 () -> service.createBooking(bookingToSave, booker.getId()));
@@ -137,7 +155,7 @@ class BookingServiceTest {
         item.setAvailable(true);
         item.setOwner(booker);
         when(userRepository.existsById(anyLong())).thenReturn(true);
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.ofNullable(item));
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.ofNullable(item));
         NotFoundException e = assertThrows(
                 NotFoundException.class,
                 () -> service.createBooking(bookingToSave, booker.getId()));
@@ -145,25 +163,53 @@ class BookingServiceTest {
     }
 
     @Test
-    void succeedConfirmBookingByOwner() {
+    void createBookingFailByOverlappingPeriod() {
         when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.ofNullable(item));
+        when(bookingRepository.existsByItemIdAndStatusInAndStartIsBeforeAndEndIsAfter(anyLong(), anyCollection(),
+                any(), any())).thenReturn(true);
+        AlreadyExistsException exception = assertThrows(
+                AlreadyExistsException.class,
+                () -> service.createBooking(bookingToSave, booker.getId()));
+        assertEquals("Вещь уже забронирована на указанный период.", exception.getMessage());
+        verify(bookingRepository, times(0)).save(any());
+    }
+
+    @Test
+    void succeedConfirmBookingByOwner() {
+        when(userCache.exists(anyLong())).thenReturn(true);
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.ofNullable(booking));
-        when(bookingRepository.save(any())).thenReturn(booking);
+        when(bookingRepository.saveAndFlush(any())).thenReturn(booking);
         when(itemRepository.existsById(anyLong())).thenReturn(true);
-        when(itemRepository.getReferenceById(anyLong())).thenReturn(item);
+        when(itemRepository.existsByIdAndOwnerId(anyLong(), anyLong())).thenReturn(true);
         BookingOutputDto bookingOutDto = service.confirmBookingByOwner(owner.getId(), booking.getId(), true);
         assertNotNull(bookingOutDto);
         assertEquals(booking.getId(), bookingOutDto.getId());
         assertEquals(Status.APPROVED, bookingOutDto.getStatus());
+        booking.setStatus(Status.WAITING);
         bookingOutDto = service.confirmBookingByOwner(owner.getId(), booking.getId(), false);
         assertNotNull(bookingOutDto);
         assertEquals(booking.getId(), bookingOutDto.getId());
         assertEquals(Status.REJECTED, bookingOutDto.getStatus());
     }
 
+    @Test
+    void confirmBookingByOwnerFailByNotOwner() {
+        when(userCache.exists(anyLong())).thenReturn(true);
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(itemRepository.existsById(anyLong())).thenReturn(true);
+        when(itemRepository.existsByIdAndOwnerId(item.getId(), booker.getId())).thenReturn(false);
+        NotFoundException exception = assertThrows(
+                NotFoundException.class,
+                () -> service.confirmBookingByOwner(booker.getId(), booking.getId(), true)
+        );
+        assertEquals("Редактировать может только владелец.", exception.getMessage());
+        verify(bookingRepository, times(0)).saveAndFlush(any());
+    }
+
     @Test
     void confirmBookingByOwnerFailByBookingNotFound() {
-        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(userCache.exists(anyLong())).thenReturn(true);
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         NotFoundException exception = assertThrows(
@@ -171,29 +217,46 @@ class BookingServiceTest {
                 () -> service.confirmBookingByOwner(owner.getId(), booking.getId(), true)
         );
         assertEquals("Бронирование с указанным id не найдено.", exception.getMessage());
-        verify(bookingRepository, times(0)).save(any());
+        verify(bookingRepository, times(0)).saveAndFlush(any());
     }
 
     @Test
     void confirmBookingByOwnerFailByNotValidParameter() {
-        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(userCache.exists(anyLong())).thenReturn(true);
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
         when(itemRepository.existsById(anyLong())).thenReturn(true);
-        when(itemRepository.getReferenceById(anyLong())).thenReturn(item);
+        when(itemRepository.existsByIdAndOwnerId(anyLong(), anyLong())).thenReturn(true);
         booking.setStatus(Status.REJECTED);
         ValidationException exception = assertThrows(
                 ValidationException.class,
                 () -> service.confirmBookingByOwner(owner.getId(), booking.getId(), false)
         );
         assertEquals("Ошибка валидации", exception.getMessage());
-        verify(bookingRepository, times(0)).save(any());
+        verify(bookingRepository, times(0)).saveAndFlush(any());
         booking.setStatus(Status.APPROVED);
         ValidationException ex = assertThrows(
                 ValidationException.class,
                 () -> service.confirmBookingByOwner(owner.getId(), booking.getId(), true)
         );
         assertEquals("Ошибка валидации", ex.getMessage());
-        verify(bookingRepository, times(0)).save(any());
+        verify(bookingRepository, times(0)).saveAndFlush(any());
+        booking.setStatus(Status.REJECTED);
+        ConflictException rejected = assertThrows(ConflictException.class,
+                () -> service.confirmBookingByOwner(owner.getId(), booking.getId(), true));
+        assertEquals("Нельзя перевести бронирование из статуса REJECTED в APPROVED.", rejected.getMessage());
+        verify(bookingRepository, times(0)).saveAndFlush(any());
+    }
+
+    @Test
+    void confirmBookingByOwnerFailsOnConcurrentUpdate() {
+        when(userCache.exists(anyLong())).thenReturn(true);
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(itemRepository.existsById(anyLong())).thenReturn(true);
+        when(itemRepository.existsByIdAndOwnerId(anyLong(), anyLong())).thenReturn(true);
+        when(bookingRepository.saveAndFlush(any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, booking.getId()));
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> service.confirmBookingByOwner(owner.getId(), booking.getId(), true));
     }
 
     @Test
@@ -227,50 +290,59 @@ class BookingServiceTest {
 
     @Test
     void succeedFindAllUsersBooking() {
-        int from = 0;
-        int size = 1;
         long userId = booker.getId();
-        when(userRepository.existsById(anyLong())).thenReturn(true);
-        when(bookingRepository.findByBookerIdOrderByStartDesc(anyLong(), any())).thenReturn(
-                new PageImpl<>(List.of(booking)));
-        List<BookingOutputDto> bookingOutDto = service.findAllUsersBooking(userId, "ALL", from, size);
-        assertNotNull(bookingOutDto);
-        assertEquals(1, bookingOutDto.size());
-        assertEquals(booking.getId(), bookingOutDto.get(0).getId());
-        booking.setEnd(NOW.plusSeconds(120));
-        when(bookingRepository.findByBookerIdAndEndIsAfterAndStartIsBeforeOrderByStartDesc(anyLong(), any(), any(),
-                any())).thenReturn(new PageImpl<>(List.of(booking)));
-        bookingOutDto = service.findAllUsersBooking(userId, "CURRENT", from, size);
-        assertNotNull(bookingOutDto);
-        assertEquals(1, bookingOutDto.size());
-        when(bookingRepository.findByBookerIdAndEndIsBeforeOrderByStartDesc(anyLong(), any(),
-                any())).thenReturn(new PageImpl<>(List.of(booking)));
-        bookingOutDto = service.findAllUsersBooking(userId, "PAST", from, size);
-        assertNotNull(bookingOutDto);
-        assertEquals(1, bookingOutDto.size());
-        booking.setStart(NOW.plusSeconds(60));
-        when(bookingRepository.findByBookerIdAndStartIsAfterOrderByStartDesc(anyLong(), any(),
-                any())).thenReturn(new PageImpl<>(List.of(booking)));
-        bookingOutDto = service.findAllUsersBooking(userId, "FUTURE", from, size);
-        assertNotNull(bookingOutDto);
-        assertEquals(1, bookingOutDto.size());
-        booking.setStatus(Status.WAITING);
-        when(bookingRepository.findByBookerIdAndStatusOrderByStartDesc(anyLong(), any(),
-                any())).thenReturn(new PageImpl<>(List.of(booking)));
-        bookingOutDto = service.findAllUsersBooking(userId, "WAITING", from, size);
-        assertNotNull(bookingOutDto);
-        assertEquals(1, bookingOutDto.size());
-        booking.setStatus(Status.REJECTED);
-        when(bookingRepository.findByBookerIdAndStatusOrderByStartDesc(anyLong(), any(),
-                any())).thenReturn(new PageImpl<>(List.of(booking)));
-        bookingOutDto = service.findAllUsersBooking(userId, "REJECTED", from, size);
-        assertNotNull(bookingOutDto);
-        assertEquals(1, bookingOutDto.size());
+        when(userCache.exists(anyLong())).thenReturn(true);
+        when(bookingRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(booking)));
+        for (State state : State.values()) {
+            List<BookingOutputDto> bookingOutDto = service.findAllUsersBooking(userId, state.name(), 2, 2);
+            assertEquals(1, bookingOutDto.size());
+            assertEquals(booking.getId(), bookingOutDto.get(0).getId());
+        }
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(bookingRepository, times(State.values().length)).findAll(any(Specification.class), page.capture());
+        assertEquals(PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "start")), page.getValue());
+    }
+
+    @Test
+    void succeedFindAllUsersBookingAfter() {
+        long userId = booker.getId();
+        when(userCache.exists(anyLong())).thenReturn(true);
+        when(bookingRepository.findSlice(any(), anyInt()))
+                .thenReturn(new SliceImpl<>(List.of(booking), PageRequest.of(0, 1), true));
+        Slice<BookingOutputDto> bookingOutDto = service.findAllUsersBookingAfter(userId, "ALL",
+                NOW.plusDays(40) + ",10", 1);
+        assertEquals(1, bookingOutDto.getContent().size());
+        assertEquals(booking.getId(), bookingOutDto.getContent().get(0).getId());
+        assertTrue(bookingOutDto.hasNext());
+    }
+
+    @Test
+    void findAllUsersBookingAfterFailByWrongCursor() {
+        when(userCache.exists(anyLong())).thenReturn(true);
+        assertThrows(ValidationException.class,
+                () -> service.findAllUsersBookingAfter(booker.getId(), "ALL", "yesterday", 1));
+        assertThrows(ValidationException.class,
+                () -> service.findAllUsersBookingAfter(booker.getId(), "ALL", NOW + ",last", 1));
+        verify(bookingRepository, times(0)).findSlice(any(), anyInt());
+    }
+
+    @Test
+    void succeedFindAllBookingsForItemsAfter() {
+        long userId = owner.getId();
+        when(userCache.exists(anyLong())).thenReturn(true);
+        when(itemRepository.existsByOwnerId(anyLong())).thenReturn(true);
+        when(bookingRepository.findSlice(any(), anyInt())).thenReturn(new SliceImpl<>(List.of(booking)));
+        Slice<BookingOutputDto> bookingOutDto = service.findAllBookingsForItemsAfter(userId, "FUTURE",
+                NOW.plusDays(40) + ",10", 1);
+        assertEquals(1, bookingOutDto.getContent().size());
+        assertEquals(booking.getId(), bookingOutDto.getContent().get(0).getId());
+        assertFalse(bookingOutDto.hasNext());
     }
 
     @Test
     void findAllUsersBookingFailByUnsupportedStatus() {
-        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(userCache.exists(anyLong())).thenReturn(true);
         UnsupportedStateException exception = assertThrows(
                 UnsupportedStateException.class,
                 () -> service.findAllUsersBooking(booker.getId(), "REJECTING", 0, 1)
@@ -281,63 +353,37 @@ class BookingServiceTest {
 
     @Test
     void succeedFindAllBookingsForItems() {
-        int from = 0;
-        int size = 1;
         long userId = booker.getId();
-        when(userRepository.existsById(anyLong())).thenReturn(true);
-        when(itemRepository.findItemsByOwnerId(anyLong())).thenReturn(List.of(item));
-        when(bookingRepository.findByItemOwnerIdOrderByStartDesc(anyLong(), any())).thenReturn(new PageImpl<>(List.of(booking)));
-        List<BookingOutputDto> bookingOutDto = service.findAllBookingsForItems(userId, "ALL", from, size);
-        assertNotNull(bookingOutDto);
-        assertEquals(1, bookingOutDto.size());
-        assertEquals(booking.getId(), bookingOutDto.get(0).getId());
-        booking.setEnd(NOW.plusSeconds(120));
-        when(bookingRepository.findByItemOwnerIdAndEndIsAfterAndStartIsBeforeOrderByStartDesc(anyLong(), any(), any(),
-                any())).thenReturn(new PageImpl<>(List.of(booking)));
-        bookingOutDto = service.findAllBookingsForItems(userId, "CURRENT", from, size);
-        assertNotNull(bookingOutDto);
-        assertEquals(1, bookingOutDto.size());
-        when(bookingRepository.findByItemOwnerIdAndEndIsBeforeOrderByStartDesc(anyLong(), any(),
-                any())).thenReturn(new PageImpl<>(List.of(booking)));
-        bookingOutDto = service.findAllBookingsForItems(userId, "PAST", from, size);
-        assertNotNull(bookingOutDto);
-        assertEquals(1, bookingOutDto.size());
-        booking.setStart(NOW.plusSeconds(60));
-        when(bookingRepository.findByItemOwnerIdAndStartIsAfterOrderByStartDesc(anyLong(), any(),
-                any())).thenReturn(new PageImpl<>(List.of(booking)));
-        bookingOutDto = service.findAllBookingsForItems(userId, "FUTURE", from, size);
-        assertNotNull(bookingOutDto);
-        assertEquals(1, bookingOutDto.size());
-        booking.setStatus(Status.WAITING);
-        when(bookingRepository.findByItemOwnerIdAndStatusOrderByStartDesc(anyLong(), any(),
-                any())).thenReturn(new PageImpl<>(List.of(booking)));
-        bookingOutDto = service.findAllBookingsForItems(userId, "WAITING", from, size);
-        assertNotNull(bookingOutDto);
-        assertEquals(1, bookingOutDto.size());
-        booking.setStatus(Status.REJECTED);
-        when(bookingRepository.findByItemOwnerIdAndStatusOrderByStartDesc(anyLong(), any(),
-                any())).thenReturn(new PageImpl<>(List.of(booking)));
-        bookingOutDto = service.findAllBookingsForItems(userId, "REJECTED", from, size);
-        assertNotNull(bookingOutDto);
-        assertEquals(1, bookingOutDto.size());
+        when(userCache.exists(anyLong())).thenReturn(true);
+        when(itemRepository.existsByOwnerId(anyLong())).thenReturn(true);
+        when(bookingRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(booking)));
+        for (State state : State.values()) {
+            List<BookingOutputDto> bookingOutDto = service.findAllBookingsForItems(userId, state.name(), 2, 2);
+            assertEquals(1, bookingOutDto.size());
+            assertEquals(booking.getId(), bookingOutDto.get(0).getId());
+        }
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(bookingRepository, times(State.values().length)).findAll(any(Specification.class), page.capture());
+        assertEquals(PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "start")), page.getValue());
     }
 
     @Test
     void findAllBookingsForItemsFailByUserWithoutItems() {
-        String error = "У пользователя нет вещей.";
-        when(userRepository.existsById(anyLong())).thenReturn(true);
-        when(itemRepository.findItemsByOwnerId(anyLong())).thenThrow(new NotFoundException(error));
+        when(userCache.exists(anyLong())).thenReturn(true);
+        when(itemRepository.existsByOwnerId(anyLong())).thenReturn(false);
         NotFoundException exception = assertThrows(
                 NotFoundException.class,
                 () -> service.findAllBookingsForItems(owner.getId(), "ALL", 0, 1)
         );
-        assertEquals(error, exception.getMessage());
+        assertEquals("У пользователя c id " + owner.getId() + " нет вещей.", exception.getMessage());
+        verify(bookingRepository, times(0)).findAll(any(Specification.class), any(Pageable.class));
     }
 
     @Test
     void findAllBookingsForItemsFailByUnsupportedStatus() {
-        when(userRepository.existsById(anyLong())).thenReturn(true);
-        when(itemRepository.findItemsByOwnerId(anyLong())).thenReturn(List.of(item));
+        when(userCache.exists(anyLong())).thenReturn(true);
+        when(itemRepository.existsByOwnerId(anyLong())).thenReturn(true);
         UnsupportedStateException exception = assertThrows(
                 UnsupportedStateException.class,
                 () -> service.findAllBookingsForItems(booker.getId(), "REJECTING", 0, 1)
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CompletedRentalsTest {
+    @Mock
+    private BookingRepository bookingRepository;
+    private CompletedRentals completedRentals;
+
+    @BeforeEach
+    void setUp() {
+        completedRentals = new CompletedRentals(bookingRepository, new SimpleMeterRegistry(), 100,
+                Duration.ofMinutes(10));
+    }
+
+    @Test
+    void firstEndIsLoadedOncePerBookerAndItem() {
+        LocalDateTime end = LocalDateTime.now().minusDays(1);
+        when(bookingRepository.findFirstEnd(1L, 10L, Status.APPROVED)).thenReturn(end);
+        assertEquals(Optional.of(end), completedRentals.firstEnd(1L, 10L));
+        assertEquals(Optional.of(end), completedRentals.firstEnd(1L, 10L));
+        verify(bookingRepository, times(1)).findFirstEnd(1L, 10L, Status.APPROVED);
+    }
+
+    @Test
+    void missingOrUnfinishedRentalIsNotCached() {
+        LocalDateTime end = LocalDateTime.now().plusDays(1);
+        when(bookingRepository.findFirstEnd(2L, 20L, Status.APPROVED)).thenReturn(null, end, end);
+        assertTrue(completedRentals.firstEnd(2L, 20L).isEmpty());
+        assertEquals(Optional.of(end), completedRentals.firstEnd(2L, 20L));
+        assertEquals(Optional.of(end), completedRentals.firstEnd(2L, 20L));
+        verify(bookingRepository, times(3)).findFirstEnd(2L, 20L, Status.APPROVED);
+    }
+}
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDtoByOwner;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemCardCacheTest {
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Supplier<ItemDtoByOwner> loader = () -> ItemDtoByOwner.builder()
+            .id(1L)
+            .name("card " + loads.incrementAndGet())
+            .build();
+    private ItemCardStore store;
+    private ItemCardCache replica;
+    private ItemCardCache otherReplica;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryItemCardStore(100, Duration.ofMinutes(1));
+        replica = new ItemCardCache(store, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+        otherReplica = new ItemCardCache(store, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void replicasShareCardsThroughStore() {
+        ItemDtoByOwner card = replica.get(1L, true, "1-0", loader);
+        assertSame(card, otherReplica.get(1L, true, "1-0", loader));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void rolesAreCachedSeparately() {
+        replica.get(1L, true, "1-0", loader);
+        replica.get(1L, false, "1-0", loader);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void changedFingerprintReloadsCard() {
+        ItemDtoByOwner card = replica.get(1L, false, "1-0", loader);
+        ItemDtoByOwner changed = otherReplica.get(1L, false, "2-0", loader);
+        assertNotSame(card, changed);
+        assertSame(changed, replica.get(1L, false, "2-0", loader));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void changeEventEvictsBothLevels() {
+        replica.get(1L, true, "1-0", loader);
+        replica.onItemCardChanged(new ItemCardChangedEvent(1L));
+        assertTrue(store.get("item-card:1:owner").isEmpty());
+        replica.get(1L, true, "1-0", loader);
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,153 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.monitoring.QueryCounter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemCardExecutorTest {
+    @Test
+    void waitsForRunningLookupInsteadOfLoadingAgain() throws InterruptedException {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            ItemCardExecutor executor = new ItemCardExecutor(pool, Duration.ofSeconds(1));
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            AtomicInteger loads = new AtomicInteger();
+            CompletableFuture<Integer> future = executor.supply(() -> {
+                loads.incrementAndGet();
+                started.countDown();
+                await(release);
+                return 1;
+            });
+            assertTrue(started.await(1, TimeUnit.SECONDS));
+            executor.runQueued(future);
+            release.countDown();
+
+            assertEquals(1, executor.resultOrLoad(future, loads::incrementAndGet));
+            assertEquals(1, loads.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void queuedLookupIsLoadedByCallerOnce() {
+        List<Runnable> queue = new ArrayList<>();
+        ItemCardExecutor executor = new ItemCardExecutor(queue::add, Duration.ofMillis(10));
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<Integer> future = executor.supply(loads::incrementAndGet);
+
+        assertEquals(1, executor.resultOrLoad(future, loads::incrementAndGet));
+        queue.forEach(Runnable::run);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void queuedLookupsAreRunByCallerWithoutWaiting() {
+        List<Runnable> queue = new ArrayList<>();
+        ItemCardExecutor executor = new ItemCardExecutor(queue::add, Duration.ofSeconds(10));
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<Integer> first = executor.supply(loads::incrementAndGet);
+        CompletableFuture<Integer> second = executor.supply(loads::incrementAndGet);
+
+        executor.runQueued(first, second);
+        assertTrue(first.isDone());
+        assertTrue(second.isDone());
+        queue.forEach(Runnable::run);
+        assertEquals(3, executor.resultOrLoad(first, () -> 0) + executor.resultOrLoad(second, () -> 0));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void rejectedLookupIsLoadedByCallerOnce() {
+        ItemCardExecutor executor = new ItemCardExecutor(task -> {
+            throw new RejectedExecutionException();
+        }, Duration.ofSeconds(10));
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<Integer> future = executor.supply(loads::incrementAndGet);
+
+        executor.runQueued(future);
+        assertEquals(1, executor.resultOrLoad(future, loads::incrementAndGet));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void failedLookupIsLoadedAgain() {
+        ItemCardExecutor executor = new ItemCardExecutor(Runnable::run, Duration.ofMillis(10));
+        CompletableFuture<Integer> future = executor.supply(() -> {
+            throw new IllegalStateException();
+        });
+
+        assertEquals(2, executor.resultOrLoad(future, () -> 2));
+    }
+
+    @Test
+    void slowLookupIsLoadedByCallerAfterTimeout() throws InterruptedException {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            ItemCardExecutor executor = new ItemCardExecutor(pool, Duration.ofMillis(50));
+            CountDownLatch started = new CountDownLatch(1);
+            CompletableFuture<Integer> future = executor.supply(() -> {
+                started.countDown();
+                await(release);
+                return 1;
+            });
+            assertTrue(started.await(1, TimeUnit.SECONDS));
+
+            assertEquals(2, executor.resultOrLoad(future, () -> 2));
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void pooledLookupStatementsAreCountedForCaller() throws InterruptedException {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            ItemCardExecutor executor = new ItemCardExecutor(pool, Duration.ofSeconds(1));
+            QueryCounter inspector = new QueryCounter();
+            CountDownLatch started = new CountDownLatch(1);
+            QueryCounter.reset();
+            CompletableFuture<String> future = executor.supply(() -> {
+                started.countDown();
+                return inspector.inspect("select 1");
+            });
+            assertTrue(started.await(1, TimeUnit.SECONDS));
+
+            assertEquals("select 1", executor.resultOrLoad(future, () -> "loaded"));
+            assertEquals(1, QueryCounter.count());
+        } finally {
+            QueryCounter.clear();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void poolMustLeaveConnectionsForRequests() {
+        assertThrows(IllegalStateException.class, () -> new ItemCardExecutor(10, 100, Duration.ofSeconds(1), 10));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
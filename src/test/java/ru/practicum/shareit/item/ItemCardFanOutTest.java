@@ -0,0 +1,113 @@
+package ru.practicum.shareit.item;
+
+import lombok.experimental.FieldDefaults;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoByOwner;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.monitoring.QueryCounter;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+
+import static lombok.AccessLevel.PRIVATE;
+
+@SpringBootTest
+@FieldDefaults(level = PRIVATE)
+class ItemCardFanOutTest {
+    @Autowired
+    ItemService itemService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    BookingRepository bookingRepository;
+    @Autowired
+    CommentRepository commentRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    EntityManager entityManager;
+    User owner;
+    Item item;
+    Booking lastBooking;
+    Booking nextBooking;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            owner = User.builder().name("owner").email("owner@fanout.ru").build();
+            entityManager.persist(owner);
+            User booker = User.builder().name("booker").email("booker@fanout.ru").build();
+            entityManager.persist(booker);
+            item = Item.builder().name("lamp").description("desk lamp").available(true).owner(owner).build();
+            entityManager.persist(item);
+            lastBooking = Booking.builder().item(item).booker(booker).status(Status.APPROVED)
+                    .start(now.minusDays(2)).end(now.minusDays(1)).build();
+            entityManager.persist(lastBooking);
+            nextBooking = Booking.builder().item(item).booker(booker).status(Status.WAITING)
+                    .start(now.plusDays(1)).end(now.plusDays(2)).build();
+            entityManager.persist(nextBooking);
+            entityManager.persist(Comment.builder().text("bright").author(booker).item(item).created(now).build());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void assemblesItemCardOutsideCallerTransaction() {
+        ItemDtoByOwner itemDto = itemService.getItemById(owner.getId(), item.getId());
+
+        Assertions.assertThat(itemDto.getLastBooking().getId()).isEqualTo(lastBooking.getId());
+        Assertions.assertThat(itemDto.getNextBooking().getId()).isEqualTo(nextBooking.getId());
+        Assertions.assertThat(itemDto.getComments()).singleElement()
+                .satisfies(comment -> Assertions.assertThat(comment.getAuthorName()).isEqualTo("booker"));
+    }
+
+    @Test
+    void concurrentAndCachedCardsWithinBudget() {
+        QueryCounter.reset();
+        itemService.getItemById(owner.getId(), item.getId());
+        Assertions.assertThat(QueryCounter.count()).as("statements of the card and its pooled lookups")
+                .isEqualTo(5);
+
+        QueryCounter.reset();
+        itemService.getItemById(owner.getId(), item.getId());
+        Assertions.assertThat(QueryCounter.count()).as("statements of a cached card").isLessThanOrEqualTo(1);
+        QueryCounter.clear();
+    }
+
+    @Test
+    void cachedCardFollowsCommittedChanges() {
+        ItemDtoByOwner cached = itemService.getItemById(owner.getId(), item.getId());
+        Assertions.assertThat(itemService.getItemById(owner.getId(), item.getId())).isSameAs(cached);
+
+        itemService.updateItem(ItemDto.builder().name("floor lamp").build(), item.getId(), owner.getId());
+        Assertions.assertThat(itemService.getItemById(owner.getId(), item.getId()).getName()).isEqualTo("floor lamp");
+
+        transactionTemplate.executeWithoutResult(status -> entityManager.find(Item.class, item.getId())
+                .setDescription("changed without an event"));
+        Assertions.assertThat(itemService.getItemById(owner.getId(), item.getId()).getDescription())
+                .isEqualTo("changed without an event");
+    }
+}
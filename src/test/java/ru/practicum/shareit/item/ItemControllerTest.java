@@ -1,6 +1,7 @@
 package ru.practicum.shareit.item;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.experimental.FieldDefaults;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.AfterEach;
@@ -8,14 +9,20 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoByOwner;
+import ru.practicum.shareit.item.dto.ItemImportError;
+import ru.practicum.shareit.item.dto.ItemImportResult;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static lombok.AccessLevel.PRIVATE;
@@ -23,19 +30,24 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.booking.BookingControllerTest.HEADER;
 
 @WebMvcTest(controllers = ItemController.class)
+@Import(SimpleMeterRegistry.class)
 @FieldDefaults(level = PRIVATE)
 class ItemControllerTest {
+    static final ItemCardVersion CARD_VERSION = new ItemCardVersion(2L, 1L, LocalDateTime.now(), "1-0", false);
     @Autowired
     ObjectMapper mapper;
     @Autowired
     MockMvc mockMvc;
     @MockBean
     ItemServiceImpl itemService;
+    @MockBean
+    ItemImporter itemImporter;
     final ItemDto itemDto = ItemDto.builder()
             .id(1L)
             .name("chair")
@@ -142,7 +154,8 @@ class ItemControllerTest {
 
     @Test
     void succeedFindByIdItem() throws Exception {
-        when(itemService.getItemById(anyLong(), anyLong())).thenReturn(itemDtoByOwner);
+        when(itemService.getItemCardVersion(1L, 2L)).thenReturn(CARD_VERSION);
+        when(itemService.getItemById(CARD_VERSION)).thenReturn(itemDtoByOwner);
         mockMvc.perform(get("/items/2")
                         .header(HEADER, 1L))
                 .andExpectAll(
@@ -154,6 +167,29 @@ class ItemControllerTest {
                 );
     }
 
+    @Test
+    void findByIdItemNotModified() throws Exception {
+        when(itemService.getItemCardVersion(1L, 2L)).thenReturn(CARD_VERSION);
+        mockMvc.perform(get("/items/2")
+                        .header(HEADER, 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, CARD_VERSION.getETag()))
+                .andExpectAll(
+                        status().isNotModified(),
+                        header().string(HttpHeaders.ETAG, CARD_VERSION.getETag()),
+                        header().string(HttpHeaders.VARY, HEADER)
+                );
+        verify(itemService, never()).getItemById(any(ItemCardVersion.class));
+    }
+
+    @Test
+    void findByIdItemNotFound() throws Exception {
+        when(itemService.getItemCardVersion(1L, 2L)).thenThrow(new NotFoundException("Вещь c id 2 не найдена."));
+        mockMvc.perform(get("/items/2")
+                        .header(HEADER, 1L))
+                .andExpect(status().isNotFound());
+        verify(itemService, never()).getItemById(any(ItemCardVersion.class));
+    }
+
     @Test
     void findByIdItemWithoutSharerUserId() throws Exception {
         when(itemService.getItemById(anyLong(), anyLong())).thenReturn(itemDtoByOwner);
@@ -178,6 +214,47 @@ class ItemControllerTest {
                 );
     }
 
+    @Test
+    void succeedSaveItems() throws Exception {
+        when(itemService.saveItems(any(), anyLong())).thenReturn(List.of(itemDto, itemDto));
+        mockMvc.perform(post("/items/batch")
+                        .header(HEADER, 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(List.of(itemDto, itemDto))))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.length()", Matchers.is(2)),
+                        jsonPath("$[0].id", Matchers.is(itemDto.getId()), Long.class)
+                );
+    }
+
+    @Test
+    void failSaveItemsWithInvalidItem() throws Exception {
+        ItemDto invalid = ItemDto.builder().description("no name").available(true).build();
+        mockMvc.perform(post("/items/batch")
+                        .header(HEADER, 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(List.of(itemDto, invalid))))
+                .andExpect(status().isBadRequest());
+        verify(itemService, never()).saveItems(any(), anyLong());
+    }
+
+    @Test
+    void succeedImportItems() throws Exception {
+        when(itemImporter.importItems(any(), eq(1L))).thenReturn(new ItemImportResult(2, 1,
+                List.of(new ItemImportError(3, "Некорректный JSON."))));
+        mockMvc.perform(post("/items/import")
+                        .header(HEADER, 1L)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\":\"chair\",\"description\":\"green\",\"available\":true}\n"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.imported", Matchers.is(2)),
+                        jsonPath("$.failed", Matchers.is(1)),
+                        jsonPath("$.errors[0].line", Matchers.is(3))
+                );
+    }
+
     @Test
     void failFindAllWithWrongParam() throws Exception {
         mockMvc.perform(get("/items")
@@ -194,7 +271,7 @@ class ItemControllerTest {
 
     @Test
     void succeedFindItemByDescriptionWithDefaultParams() throws Exception {
-        when(itemService.getUserItemByText(any())).thenReturn(List.of(itemDto));
+        when(itemService.getUserItemByText(any(), eq(0), eq(10))).thenReturn(List.of(itemDto));
         mockMvc.perform(get("/items/search")
                         .header(HEADER, 1L))
                 .andExpectAll(
@@ -243,6 +320,22 @@ class ItemControllerTest {
                 );
     }
 
+    @Test
+    void succeedFindCommentsAfterCursor() throws Exception {
+        when(itemService.getComments(1L, 40L, 5)).thenReturn(List.of(commentDto));
+        mockMvc.perform(get("/items/1/comments")
+                        .param("cursor", "40")
+                        .param("size", "5"))
+                .andExpectAll(
+                        status().isOk(),
+                        jsonPath("$.length()", Matchers.is(1)),
+                        jsonPath("$[0].text", Matchers.is(commentDto.getText()))
+                );
+        mockMvc.perform(get("/items/1/comments")
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void succeedDeleteItemById() throws Exception {
         mockMvc.perform(delete("/items/2")
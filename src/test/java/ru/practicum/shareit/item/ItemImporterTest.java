@@ -0,0 +1,94 @@
+package ru.practicum.shareit.item;
+
+import lombok.experimental.FieldDefaults;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemImportError;
+import ru.practicum.shareit.item.dto.ItemImportResult;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static lombok.AccessLevel.PRIVATE;
+
+@SpringBootTest
+@Transactional
+@FieldDefaults(level = PRIVATE)
+class ItemImporterTest {
+    @Autowired
+    ItemImporter itemImporter;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    EntityManager entityManager;
+    User owner;
+    ItemRequest request;
+
+    @BeforeEach
+    void setUp() {
+        owner = User.builder().name("owner").email("owner@import.ru").build();
+        entityManager.persist(owner);
+        request = ItemRequest.builder().description("need a lamp").requester(owner)
+                .created(LocalDateTime.now()).build();
+        entityManager.persist(request);
+        entityManager.flush();
+    }
+
+    @Test
+    void importsValidLinesAndReportsInvalidOnes() throws IOException {
+        String body = "{\"name\":\"lamp\",\"description\":\"desk lamp\",\"available\":true}\n"
+                + "\n"
+                + "{\"name\":\"broken\n"
+                + "{\"name\":\"\",\"description\":\"no name\",\"available\":true}\n"
+                + "{\"name\":\"chair\",\"description\":\"old\",\"available\":false,\"requestId\":" + request.getId()
+                + "}\n"
+                + "{\"name\":\"bed\",\"description\":\"big\",\"available\":true,\"requestId\":-1}\n";
+
+        ItemImportResult result = itemImporter.importItems(stream(body), owner.getId());
+
+        Assertions.assertThat(result.getImported()).isEqualTo(2);
+        Assertions.assertThat(result.getFailed()).isEqualTo(3);
+        Assertions.assertThat(result.getErrors()).extracting(ItemImportError::getLine).containsExactly(3L, 4L, 6L);
+        Assertions.assertThat(result.getErrors().get(1).getMessage()).startsWith("name:");
+        Assertions.assertThat(result.getErrors().get(2).getMessage()).isEqualTo("Запрос c id -1 не найден.");
+        Assertions.assertThat(itemRepository.findItemsByOwnerId(owner.getId()))
+                .extracting(i -> i.getName(), i -> i.getRequest() == null ? null : i.getRequest().getId())
+                .containsExactlyInAnyOrder(Assertions.tuple("lamp", null), Assertions.tuple("chair", request.getId()));
+    }
+
+    @Test
+    void importsAcrossSeveralChunks() throws IOException {
+        int count = ItemImporter.CHUNK_SIZE * 2 + 1;
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            body.append("{\"name\":\"item ").append(i).append("\",\"description\":\"bulk\",\"available\":true}\n");
+        }
+
+        ItemImportResult result = itemImporter.importItems(stream(body.toString()), owner.getId());
+
+        Assertions.assertThat(result.getImported()).isEqualTo(count);
+        Assertions.assertThat(result.getErrors()).isEmpty();
+        Assertions.assertThat(itemRepository.findItemsByOwnerId(owner.getId())).hasSize(count);
+    }
+
+    @Test
+    void failsForUnknownOwner() {
+        Assertions.assertThatThrownBy(() -> itemImporter.importItems(stream("{}"), -1L))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
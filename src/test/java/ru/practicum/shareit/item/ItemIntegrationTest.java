@@ -9,6 +9,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.Status;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoByOwner;
@@ -35,6 +36,8 @@ class ItemIntegrationTest {
     User booker;
     Item item;
     Item item2;
+    Booking lastBooking;
+    Booking nextBooking;
 
     @BeforeEach
     void setUp() {
@@ -76,14 +79,30 @@ class ItemIntegrationTest {
                 .end(now.minusDays(4))
                 .build();
         entityManager.persist(booking);
-        Booking booking2 = Booking.builder()
+        lastBooking = Booking.builder()
                 .item(item)
                 .booker(booker2)
                 .status(Status.APPROVED)
                 .start(now.minusDays(3))
                 .end(now.minusDays(2))
                 .build();
-        entityManager.persist(booking2);
+        entityManager.persist(lastBooking);
+        nextBooking = Booking.builder()
+                .item(item)
+                .booker(booker2)
+                .status(Status.WAITING)
+                .start(now.plusDays(2))
+                .end(now.plusDays(3))
+                .build();
+        entityManager.persist(nextBooking);
+        Booking rejectedBooking = Booking.builder()
+                .item(item)
+                .booker(booker)
+                .status(Status.REJECTED)
+                .start(now.plusDays(1))
+                .end(now.plusDays(2))
+                .build();
+        entityManager.persist(rejectedBooking);
         Comment comment2 = Comment.builder()
                 .text("cute chair")
                 .item(item)
@@ -130,6 +149,10 @@ class ItemIntegrationTest {
                 .hasSize(2);
         Assertions.assertThat(returnedList.get(0).getName()).isEqualTo(item.getName());
         Assertions.assertThat(returnedList.get(1).getName()).isEqualTo(item2.getName());
+        Assertions.assertThat(returnedList.get(0).getLastBooking().getId()).isEqualTo(lastBooking.getId());
+        Assertions.assertThat(returnedList.get(0).getNextBooking().getId()).isEqualTo(nextBooking.getId());
+        Assertions.assertThat(returnedList.get(1).getLastBooking()).isNull();
+        Assertions.assertThat(returnedList.get(1).getNextBooking()).isNull();
         List<ItemDtoByOwner> returnedList2 = itemService.findByOwnerId(bookerId, 0, 1);
         Assertions.assertThat(returnedList2).isEmpty();
     }
@@ -137,17 +160,26 @@ class ItemIntegrationTest {
     @Test
     void getUserItemByTextTest() {
         String search = "green";
-        List<ItemDto> list = itemService.getUserItemByText(search);
+        List<ItemDto> list = itemService.getUserItemByText(search, 0, 10);
         Assertions.assertThat(list).isNotEmpty()
                 .hasSize(2)
                 .extracting(ItemDto::getName)
                 .containsExactlyInAnyOrder(item.getName(), item2.getName());
     }
 
+    @Test
+    void getUserItemByTextPageTest() {
+        List<ItemDto> first = itemService.getUserItemByText("green", 0, 1);
+        List<ItemDto> second = itemService.getUserItemByText("green", 1, 1);
+        Assertions.assertThat(first).hasSize(1);
+        Assertions.assertThat(second).hasSize(1);
+        Assertions.assertThat(first.get(0).getId()).isNotEqualTo(second.get(0).getId());
+    }
+
     @Test
     void getUserItemByEmptyTextTest() {
         String search = "";
-        List<ItemDto> list = itemService.getUserItemByText(search);
+        List<ItemDto> list = itemService.getUserItemByText(search, 0, 10);
         Assertions.assertThat(list).isEmpty();
     }
 
@@ -161,4 +193,45 @@ class ItemIntegrationTest {
                 .hasFieldOrPropertyWithValue("text", commentNewDto.getText())
                 .hasFieldOrPropertyWithValue("authorName", booker.getName());
     }
+
+    @Test
+    void commentsArePagedNewestFirstAndCounted() {
+        int countBefore = itemService.getItemById(booker.getId(), item.getId()).getCommentCount();
+        CommentDto added = itemService.addComment(CommentDto.builder().text("newest").build(), booker.getId(),
+                item.getId());
+        entityManager.flush();
+        entityManager.clear();
+        Assertions.assertThat(itemService.getItemById(booker.getId(), item.getId()).getCommentCount())
+                .isEqualTo(countBefore + 1);
+        List<CommentDto> first = itemService.getComments(item.getId(), null, 1);
+        Assertions.assertThat(first).extracting(CommentDto::getId).containsExactly(added.getId());
+        List<CommentDto> second = itemService.getComments(item.getId(), first.get(0).getId(), 10);
+        Assertions.assertThat(second).extracting(CommentDto::getText).containsExactly("cute chair");
+    }
+
+    @Test
+    void itemETagTracksCardContent() {
+        String ownerETag = itemService.getItemCardVersion(owner.getId(), item.getId()).getETag();
+        String guestETag = itemService.getItemCardVersion(booker.getId(), item.getId()).getETag();
+        Assertions.assertThat(itemService.getItemCardVersion(owner.getId(), item.getId()).getETag())
+                .isEqualTo(ownerETag);
+        Assertions.assertThat(guestETag).isNotEqualTo(ownerETag);
+
+        itemService.addComment(CommentDto.builder().text("still fine").build(), booker.getId(), item.getId());
+        entityManager.flush();
+        String commentedETag = itemService.getItemCardVersion(booker.getId(), item.getId()).getETag();
+        Assertions.assertThat(commentedETag).isNotEqualTo(guestETag);
+
+        booker.setName("renamed booker");
+        entityManager.flush();
+        Assertions.assertThat(itemService.getItemCardVersion(booker.getId(), item.getId()).getETag())
+                .isNotEqualTo(commentedETag);
+
+        nextBooking.setStatus(Status.APPROVED);
+        entityManager.flush();
+        Assertions.assertThat(itemService.getItemCardVersion(owner.getId(), item.getId()).getETag())
+                .isNotEqualTo(ownerETag);
+        Assertions.assertThatThrownBy(() -> itemService.getItemCardVersion(owner.getId(), -1L))
+                .isInstanceOf(NotFoundException.class);
+    }
 }
\ No newline at end of file
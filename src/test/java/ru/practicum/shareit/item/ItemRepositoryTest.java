@@ -10,11 +10,14 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static lombok.AccessLevel.PRIVATE;
@@ -28,6 +31,8 @@ class ItemRepositoryTest {
     TestEntityManager entityManager;
     @Autowired
     ItemRepository itemRepository;
+    @Autowired
+    CommentRepository commentRepository;
     User user;
     ItemRequest itemRequest;
     Item item1;
@@ -85,10 +90,40 @@ class ItemRepositoryTest {
 
     @Test
     void findItemsByWrongOwnerId() {
-        List<Item> result = itemRepository.findItemsByOwnerId(8L);
+        List<Item> result = itemRepository.findItemsByOwnerId(-1L);
         Assertions.assertThat(result).hasSize(0);
     }
 
+    @Test
+    void succeedCheckOwnership() {
+        Assertions.assertThat(itemRepository.existsByOwnerId(user.getId())).isTrue();
+        Assertions.assertThat(itemRepository.existsByOwnerId(-1L)).isFalse();
+        Assertions.assertThat(itemRepository.existsByIdAndOwnerId(item1.getId(), user.getId())).isTrue();
+        Assertions.assertThat(itemRepository.existsByIdAndOwnerId(item1.getId(), -1L)).isFalse();
+        Assertions.assertThat(itemRepository.findCardFingerprint(item1.getId(), user.getId(), LocalDateTime.now(), 10)
+                .orElseThrow().getOwner()).isTrue();
+        Assertions.assertThat(itemRepository.findCardFingerprint(item1.getId(), -1L, LocalDateTime.now(), 10)
+                .orElseThrow().getOwner()).isFalse();
+    }
+
+    @Test
+    void findLatestCommentsOfEachItem() {
+        List<Comment> comments = new ArrayList<>();
+        for (Item item : List.of(item1, item1, item1, item2)) {
+            comments.add(entityManager.persist(Comment.builder().text("fine").author(user).item(item)
+                    .created(LocalDateTime.now()).build()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        List<Long> ids = commentRepository.findLatestIdsByItemIds(List.of(item1.getId(), item2.getId()), 2);
+        Assertions.assertThat(ids).containsExactlyInAnyOrder(comments.get(1).getId(), comments.get(2).getId(),
+                comments.get(3).getId());
+        List<Comment> latest = commentRepository.findByIdInOrderByIdDesc(ids);
+        Assertions.assertThat(latest).extracting(Comment::getId).containsExactly(comments.get(3).getId(),
+                comments.get(2).getId(), comments.get(1).getId());
+        Assertions.assertThat(latest.get(0).getAuthor().getName()).isEqualTo(user.getName());
+    }
+
     @Test
     void succeedFindItemsByOwnerIdPageable() {
         int pageNum = 0;
@@ -116,13 +151,16 @@ class ItemRepositoryTest {
 
     @Test
     void succeedSearchItemByText() {
-        Page<Item> result =
-                itemRepository.findByAvailableTrueAndDescriptionContainingIgnoreCaseOrNameContainingIgnoreCase(
-                        "table", "table", Pageable.unpaged());
-        Assertions.assertThat(result).isNotNull().hasSize(2);
-        Assertions.assertThat(result)
-                .usingRecursiveComparison()
-                .ignoringFields("id")
-                .isNotEqualTo(List.of(item1, item2));
+        Slice<Item> result = itemRepository.search("%table%", PageRequest.of(0, 10));
+        Assertions.assertThat(result).containsExactly(item1, item2);
+        Slice<Item> firstPage = itemRepository.search("%table%", PageRequest.of(0, 1));
+        Assertions.assertThat(firstPage).containsExactly(item1);
+        Assertions.assertThat(firstPage.hasNext()).isTrue();
+    }
+
+    @Test
+    void searchItemByTextSkipsUnavailableItems() {
+        Slice<Item> result = itemRepository.search("%chair%", PageRequest.of(0, 10));
+        Assertions.assertThat(result).containsExactly(item2);
     }
 }
\ No newline at end of file
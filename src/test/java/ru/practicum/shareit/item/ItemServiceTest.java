@@ -1,32 +1,46 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.experimental.FieldDefaults;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.CompletedRentals;
 import ru.practicum.shareit.booking.Status;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoByOwner;
+import ru.practicum.shareit.ETags;
 import ru.practicum.shareit.ObjectMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 
 import static lombok.AccessLevel.PRIVATE;
 import static org.junit.jupiter.api.Assertions.*;
@@ -36,6 +50,7 @@ import static org.mockito.Mockito.*;
 @FieldDefaults(level = PRIVATE)
 class ItemServiceTest {
     static final LocalDateTime NOW = LocalDateTime.now();
+    static final PageRequest CARD_PAGE = PageRequest.of(0, ItemServiceImpl.CARD_COMMENTS);
     @Mock
     ItemRepository repository;
     @Mock
@@ -44,6 +59,17 @@ class ItemServiceTest {
     BookingRepository bookingRepository;
     @Mock
     CommentRepository commentRepository;
+    @Mock
+    ItemRequestRepository itemRequestRepository;
+    @Mock
+    CompletedRentals completedRentals;
+    @Spy
+    ItemCardCache itemCardCache = new ItemCardCache(new InMemoryItemCardStore(100, Duration.ofMinutes(1)),
+            new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+    @Spy
+    ItemCardExecutor itemCardExecutor = new ItemCardExecutor(Runnable::run, Duration.ofSeconds(1));
     @InjectMocks
     ItemServiceImpl service;
     User owner;
@@ -69,23 +95,53 @@ class ItemServiceTest {
     @Test
     void succeedCreateItem() {
         when(repository.save(any())).thenReturn(item);
-        when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
+        when(userRepository.existsById(owner.getId())).thenReturn(true);
+        when(userRepository.getReferenceById(owner.getId())).thenReturn(owner);
         ItemDto itemDto = service.saveItem(ObjectMapper.toItemDto(item), owner.getId());
         assertNotNull(itemDto);
         assertEquals(item.getId(), itemDto.getId());
         verify(repository, times(1)).save(any());
     }
 
+    @Test
+    void succeedCreateItems() {
+        ItemRequest request = ItemRequest.builder().id(7L).description("need").requester(booker).created(NOW).build();
+        ItemDto withRequest = ObjectMapper.toItemDto(item2);
+        withRequest.setRequestId(request.getId());
+        when(userRepository.existsById(owner.getId())).thenReturn(true);
+        when(userRepository.getReferenceById(owner.getId())).thenReturn(owner);
+        when(itemRequestRepository.findAllById(Set.of(request.getId()))).thenReturn(List.of(request));
+        List<ItemDto> itemDtos = service.saveItems(List.of(ObjectMapper.toItemDto(item), withRequest), owner.getId());
+        assertEquals(2, itemDtos.size());
+        assertNull(itemDtos.get(0).getRequestId());
+        assertEquals(request.getId(), itemDtos.get(1).getRequestId());
+        verify(repository, times(1)).saveAll(anyList());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void createItemsFailByRequestNotFound() {
+        ItemDto withRequest = ObjectMapper.toItemDto(item);
+        withRequest.setRequestId(99L);
+        when(userRepository.existsById(owner.getId())).thenReturn(true);
+        when(itemRequestRepository.findAllById(Set.of(99L))).thenReturn(Collections.emptyList());
+        NotFoundException exception = assertThrows(
+                NotFoundException.class,
+                () -> service.saveItems(List.of(withRequest), owner.getId())
+        );
+        assertEquals("Запрос c id 99 не найден.", exception.getMessage());
+        verify(repository, never()).saveAll(anyList());
+    }
+
     @Test
     void createItemFailByUserNotFound() {
         long userNotFoundId = 0L;
-        String error = "Пользователь не найден.";
-        when(userRepository.findById(userNotFoundId)).thenThrow(new NotFoundException(error));
+        when(userRepository.existsById(userNotFoundId)).thenReturn(false);
         NotFoundException exception = assertThrows(
                 NotFoundException.class,
                 () -> service.saveItem(ObjectMapper.toItemDto(item), userNotFoundId)
         );
-        assertEquals(error, exception.getMessage());
+        assertEquals("Пользователь c id " + userNotFoundId + " не найден.", exception.getMessage());
         verify(repository, times(0)).save(any());
     }
 
@@ -173,42 +229,108 @@ class ItemServiceTest {
 
     @Test
     void succeedFindItemById() {
+        when(repository.findCardFingerprint(anyLong(), anyLong(), any(), anyInt()))
+                .thenReturn(fingerprint("1-0", true));
         long ownerId = owner.getId();
         long itemId = item.getId();
         when(repository.findById(itemId)).thenReturn(Optional.of(item));
-        when(bookingRepository.findByItemIdAndItemOwnerIdAndStartIsBeforeAndStatusIsNot(anyLong(), anyLong(), any(),
-                any())).thenReturn(List.of(booking));
-        when(bookingRepository.findByItemIdAndItemOwnerIdAndStartIsAfterAndStatusIsNot(anyLong(), anyLong(), any(),
-                any())).thenReturn(List.of(booking));
-        when(commentRepository.findByItemId(itemId)).thenReturn(List.of(comment));
+        when(bookingRepository.findFirstByItemIdAndItemOwnerIdAndStartIsBeforeAndStatusIsNotOrderByStartDescIdDesc(
+                anyLong(), anyLong(), any(), any())).thenReturn(booking);
+        when(bookingRepository.findFirstByItemIdAndItemOwnerIdAndStartIsAfterAndStatusIsNotOrderByStartAscIdAsc(
+                anyLong(), anyLong(), any(), any())).thenReturn(booking);
+        when(commentRepository.findByItemIdOrderByIdDesc(itemId, CARD_PAGE)).thenReturn(List.of(comment));
         ItemDtoByOwner itemDto = service.getItemById(ownerId, itemId);
         assertNotNull(itemDto);
         assertEquals(itemId, itemDto.getId());
         assertEquals(comment.getId(), itemDto.getComments().get(0).getId());
     }
 
+    @Test
+    void findItemByIdFallsBackToSynchronousLoad() {
+        when(repository.findCardFingerprint(anyLong(), anyLong(), any(), anyInt()))
+                .thenReturn(fingerprint("1-0", true));
+        ReflectionTestUtils.setField(service, "itemCardExecutor", new ItemCardExecutor(task -> {
+        }, Duration.ofMillis(10)));
+        long itemId = item.getId();
+        when(repository.findById(itemId)).thenReturn(Optional.of(item));
+        when(bookingRepository.findFirstByItemIdAndItemOwnerIdAndStartIsBeforeAndStatusIsNotOrderByStartDescIdDesc(
+                anyLong(), anyLong(), any(), any())).thenReturn(booking);
+        when(commentRepository.findByItemIdOrderByIdDesc(itemId, CARD_PAGE)).thenReturn(List.of(comment));
+        ItemDtoByOwner itemDto = service.getItemById(owner.getId(), itemId);
+        assertEquals(booking.getId(), itemDto.getLastBooking().getId());
+        assertNull(itemDto.getNextBooking());
+        assertEquals(comment.getId(), itemDto.getComments().get(0).getId());
+        verify(commentRepository, times(1)).findByItemIdOrderByIdDesc(itemId, CARD_PAGE);
+    }
+
+    @Test
+    void findItemByIdFallsBackWhenExecutorRejects() {
+        when(repository.findCardFingerprint(anyLong(), anyLong(), any(), anyInt()))
+                .thenReturn(fingerprint("1-0", true));
+        ReflectionTestUtils.setField(service, "itemCardExecutor", new ItemCardExecutor(task -> {
+            throw new RejectedExecutionException();
+        }, Duration.ofSeconds(1)));
+        long itemId = item.getId();
+        when(repository.findById(itemId)).thenReturn(Optional.of(item));
+        when(commentRepository.findByItemIdOrderByIdDesc(itemId, CARD_PAGE)).thenReturn(List.of(comment));
+        ItemDtoByOwner itemDto = service.getItemById(owner.getId(), itemId);
+        assertEquals(comment.getId(), itemDto.getComments().get(0).getId());
+        assertNull(itemDto.getLastBooking());
+    }
+
     @Test
     void findItemByIdFailItemNotFound() {
         long itemNotFoundId = 0L;
-        String error = "Вещь не найдена.";
-        when(repository.findById(itemNotFoundId)).thenThrow(new NotFoundException(error));
+        when(repository.findCardFingerprint(eq(itemNotFoundId), anyLong(), any(), anyInt()))
+                .thenReturn(Optional.empty());
         NotFoundException exception = assertThrows(
                 NotFoundException.class,
                 () -> service.getItemById(owner.getId(), itemNotFoundId)
         );
-        assertEquals(error, exception.getMessage());
+        assertEquals("Вещь c id 0 не найдена.", exception.getMessage());
+        verifyNoInteractions(commentRepository);
+    }
+
+    @Test
+    void findItemByIdReusesCardWhileFingerprintMatches() {
+        long itemId = item.getId();
+        when(repository.findCardFingerprint(anyLong(), anyLong(), any(), anyInt()))
+                .thenReturn(fingerprint("1-0", false), fingerprint("1-0", false), fingerprint("1-1", false));
+        when(repository.findById(itemId)).thenReturn(Optional.of(item));
+        when(commentRepository.findByItemIdOrderByIdDesc(itemId, CARD_PAGE)).thenReturn(List.of(comment));
+        ItemDtoByOwner first = service.getItemById(booker.getId(), itemId);
+        assertSame(first, service.getItemById(booker.getId(), itemId));
+        assertNotSame(first, service.getItemById(booker.getId(), itemId));
+        verify(repository, times(2)).findById(itemId);
+    }
+
+    @Test
+    void findItemByIdWithVersionReadsFingerprintOnce() {
+        long itemId = item.getId();
+        when(repository.findCardFingerprint(anyLong(), anyLong(), any(), anyInt()))
+                .thenReturn(fingerprint("1-0", false));
+        when(repository.findById(itemId)).thenReturn(Optional.of(item));
+        when(commentRepository.findByItemIdOrderByIdDesc(itemId, CARD_PAGE)).thenReturn(List.of(comment));
+        ItemDtoByOwner first = service.getItemById(booker.getId(), itemId);
+        ItemCardVersion version = service.getItemCardVersion(booker.getId(), itemId);
+        assertEquals(ETags.of("item/" + itemId, "1-0"), version.getETag());
+        assertSame(first, service.getItemById(version));
+        verify(repository, times(2)).findCardFingerprint(anyLong(), anyLong(), any(), anyInt());
+        verify(repository, times(1)).findById(itemId);
     }
 
     @Test
     void findItemByIdWithoutComments() {
+        when(repository.findCardFingerprint(anyLong(), anyLong(), any(), anyInt()))
+                .thenReturn(fingerprint("1-0", true));
         long ownerId = owner.getId();
         long itemId = item2.getId();
         when(repository.findById(itemId)).thenReturn(Optional.of(item2));
-        when(bookingRepository.findByItemIdAndItemOwnerIdAndStartIsBeforeAndStatusIsNot(anyLong(), anyLong(), any(),
-                any())).thenReturn(List.of(booking));
-        when(bookingRepository.findByItemIdAndItemOwnerIdAndStartIsAfterAndStatusIsNot(anyLong(), anyLong(), any(),
-                any())).thenReturn(List.of(booking));
-        when(commentRepository.findByItemId(itemId)).thenReturn(Collections.emptyList());
+        when(bookingRepository.findFirstByItemIdAndItemOwnerIdAndStartIsBeforeAndStatusIsNotOrderByStartDescIdDesc(
+                anyLong(), anyLong(), any(), any())).thenReturn(booking);
+        when(bookingRepository.findFirstByItemIdAndItemOwnerIdAndStartIsAfterAndStatusIsNotOrderByStartAscIdAsc(
+                anyLong(), anyLong(), any(), any())).thenReturn(booking);
+        when(commentRepository.findByItemIdOrderByIdDesc(itemId, CARD_PAGE)).thenReturn(Collections.emptyList());
         ItemDtoByOwner itemDto = service.getItemById(ownerId, itemId);
         assertNotNull(itemDto);
         assertEquals(itemId, itemDto.getId());
@@ -221,14 +343,32 @@ class ItemServiceTest {
         long itemId = item.getId();
         when(userRepository.findById(userId)).thenReturn(Optional.of(owner));
         when(repository.findById(itemId)).thenReturn(Optional.of(item));
-        when(bookingRepository
-                .findTopByStatusNotLikeAndBookerIdAndItemIdOrderByEndAsc(any(), anyLong(), anyLong()))
-                .thenReturn(booking);
+        when(completedRentals.firstEnd(userId, itemId)).thenReturn(Optional.of(booking.getEnd()));
         when(commentRepository.save(any())).thenReturn(comment);
         CommentDto commentDto = service.addComment(ObjectMapper.toCommentDto(comment), userId, itemId);
         assertNotNull(commentDto);
         assertEquals(comment.getId(), commentDto.getId());
         verify(commentRepository, times(1)).save(any());
+        verify(repository, times(1)).incrementCommentCount(itemId);
+        verify(eventPublisher, times(1)).publishEvent(any(ItemCardChangedEvent.class));
+    }
+
+    @Test
+    void succeedGetCommentsByCursor() {
+        long itemId = item.getId();
+        when(repository.existsById(itemId)).thenReturn(true);
+        when(commentRepository.findByItemIdOrderByIdDesc(itemId, PageRequest.of(0, 5))).thenReturn(List.of(comment));
+        assertEquals(comment.getId(), service.getComments(itemId, null, 5).get(0).getId());
+        when(commentRepository.findByItemIdAndIdLessThanOrderByIdDesc(itemId, comment.getId(),
+                PageRequest.of(0, ItemServiceImpl.MAX_COMMENTS_PAGE_SIZE))).thenReturn(List.of());
+        assertEquals(0, service.getComments(itemId, comment.getId(), 1000).size());
+    }
+
+    @Test
+    void getCommentsFailItemNotFound() {
+        when(repository.existsById(anyLong())).thenReturn(false);
+        assertThrows(NotFoundException.class, () -> service.getComments(0L, null, 10));
+        verifyNoInteractions(commentRepository);
     }
 
     @Test
@@ -257,22 +397,30 @@ class ItemServiceTest {
     @Test
     void addCommentFailByBookingNotFound() {
         long itemId = item.getId();
-        String error = String.format("Пользователь %s не пользовался вещью %s.", owner.getName(), item.getName());
         when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(owner));
         when(repository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(bookingRepository
-                .findTopByStatusNotLikeAndBookerIdAndItemIdOrderByEndAsc(any(), anyLong(), anyLong()))
-                .thenThrow(new NotFoundException(error));
-        NotFoundException exception = assertThrows(NotFoundException.class,
+        when(completedRentals.firstEnd(booker.getId(), itemId)).thenReturn(Optional.empty());
+        assertThrows(ValidationException.class,
                 () -> service.addComment(ObjectMapper.toCommentDto(comment), booker.getId(), itemId));
-        assertEquals(error, exception.getMessage());
+        verify(commentRepository, times(0)).save(any());
+    }
+
+    @Test
+    void addCommentFailByRentalNotFinished() {
+        long itemId = item.getId();
+        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(owner));
+        when(repository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(completedRentals.firstEnd(booker.getId(), itemId)).thenReturn(Optional.of(NOW.plusDays(1)));
+        assertThrows(ValidationException.class,
+                () -> service.addComment(ObjectMapper.toCommentDto(comment), booker.getId(), itemId));
+        verify(commentRepository, times(0)).save(any());
     }
 
     @Test
     void succeedRemoveItemById() {
         long userId = owner.getId();
         long itemId = item.getId();
-        when(repository.getReferenceById(itemId)).thenReturn(item);
+        when(repository.existsByIdAndOwnerId(itemId, userId)).thenReturn(true);
         when(repository.findById(itemId)).thenReturn(Optional.of(item));
         doNothing().when(repository).deleteById(itemId);
         service.deleteItem(userId, itemId);
@@ -296,27 +444,41 @@ class ItemServiceTest {
         long notOwnerId = booker.getId();
         String error = "Редактировать может только владелец.";
         when(repository.findById(itemId)).thenReturn(Optional.of(item));
-        when(repository.getReferenceById(itemId)).thenReturn(item);
         NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> service.deleteItem(notOwnerId, itemId));
         assertEquals(error, exception.getMessage());
+        verify(repository, times(0)).deleteById(any());
     }
 
     @Test
     void succeedFindItemByDescription() {
         String text = "tAblE";
-        when(repository.findByAvailableTrueAndDescriptionContainingIgnoreCaseOrNameContainingIgnoreCase(text, text))
-                .thenReturn(List.of(item));
-        List<ItemDto> itemDtos = service.getUserItemByText(text);
+        when(repository.search("%table%", PageRequest.of(0, 10))).thenReturn(new SliceImpl<>(List.of(item)));
+        List<ItemDto> itemDtos = service.getUserItemByText(text, 0, 10);
         assertNotNull(itemDtos);
         assertEquals(1, itemDtos.size());
         assertEquals(item.getId(), itemDtos.get(0).getId());
     }
 
+    @Test
+    void findItemByDescriptionEscapesWildcards() {
+        when(repository.search(anyString(), any())).thenReturn(new SliceImpl<>(Collections.emptyList()));
+        List<ItemDto> itemDtos = service.getUserItemByText("50%_OFF", 0, 10);
+        assertEquals(0, itemDtos.size());
+        verify(repository, times(1)).search("%50\\%\\_off%", PageRequest.of(0, 10));
+    }
+
+    @Test
+    void findItemByDescriptionCapsPageSize() {
+        when(repository.search(anyString(), any())).thenReturn(new SliceImpl<>(Collections.emptyList()));
+        service.getUserItemByText("table", 1000, 1000);
+        verify(repository, times(1)).search("%table%", PageRequest.of(10, ItemServiceImpl.MAX_SEARCH_PAGE_SIZE));
+    }
+
     @Test
     void findItemByDescriptionShouldReturnEmptyList() {
         String text = "";
-        List<ItemDto> itemDtos = service.getUserItemByText(text);
+        List<ItemDto> itemDtos = service.getUserItemByText(text, 0, 10);
         assertNotNull(itemDtos);
         assertEquals(0, itemDtos.size());
     }
@@ -327,16 +489,40 @@ class ItemServiceTest {
         int from = 0;
         int size = 1;
         PageRequest page = PageRequest.of(from / size, size);
-        when(commentRepository.findByItemIdIn(any())).thenReturn(List.of(comment));
-        when(bookingRepository.findByItemIdAndItemOwnerIdAndStartIsBeforeAndStatusIsNot(anyLong(),
-                anyLong(), any(), any(), any())).thenReturn(new PageImpl<>(List.of(booking)));
-        when(bookingRepository.findByItemIdAndItemOwnerIdAndStartIsAfterAndStatusIsNot(anyLong(),
-                anyLong(), any(), any(), any())).thenReturn(new PageImpl<>(List.of(booking)));
+        when(commentRepository.findLatestIdsByItemIds(List.of(item.getId()), ItemServiceImpl.CARD_COMMENTS))
+                .thenReturn(List.of(comment.getId()));
+        when(commentRepository.findByIdInOrderByIdDesc(List.of(comment.getId()))).thenReturn(List.of(comment));
+        when(bookingRepository.findLastAndNextBookingsByItemIds(anyCollection(), any(), any()))
+                .thenReturn(List.of(booking));
         when(repository.findItemsByOwnerId(userId, page)).thenReturn(new PageImpl<>(List.of(item)));
         List<ItemDtoByOwner> itemDtos = service.findByOwnerId(userId, from, size);
         assertNotNull(itemDtos);
         assertEquals(1, itemDtos.size());
         assertEquals(booking.getId(), itemDtos.get(0).getLastBooking().getId());
+        assertNull(itemDtos.get(0).getNextBooking());
+    }
+
+    @Test
+    void findAllAttachesOnlyOwnCommentsToEachItem() {
+        long userId = owner.getId();
+        PageRequest page = PageRequest.of(0, 2);
+        List<Comment> comments = new ArrayList<>();
+        List<Long> commentIds = new ArrayList<>();
+        for (long id = ItemServiceImpl.CARD_COMMENTS + 1; id > 1; id--) {
+            comments.add(Comment.builder().id(id).author(booker).text("table " + id).item(item).created(NOW).build());
+            commentIds.add(id);
+        }
+        comments.add(Comment.builder().id(1L).author(booker).text("bed").item(item2).created(NOW).build());
+        commentIds.add(1L);
+        when(commentRepository.findLatestIdsByItemIds(List.of(item.getId(), item2.getId()),
+                ItemServiceImpl.CARD_COMMENTS)).thenReturn(commentIds);
+        when(commentRepository.findByIdInOrderByIdDesc(commentIds)).thenReturn(comments);
+        when(repository.findItemsByOwnerId(userId, page)).thenReturn(new PageImpl<>(List.of(item, item2)));
+        List<ItemDtoByOwner> itemDtos = service.findByOwnerId(userId, 0, 2);
+        assertEquals(ItemServiceImpl.CARD_COMMENTS, itemDtos.get(0).getComments().size());
+        assertEquals(ItemServiceImpl.CARD_COMMENTS + 1, itemDtos.get(0).getComments().get(0).getId());
+        assertEquals(1, itemDtos.get(1).getComments().size());
+        assertEquals("bed", itemDtos.get(1).getComments().get(0).getText());
     }
 
     @Test
@@ -344,10 +530,24 @@ class ItemServiceTest {
         long userId = booker.getId();
         int from = 0;
         int size = 1;
-        PageRequest page = PageRequest.of(from / size, size);
-        when(repository.findItemsByOwnerId(userId, page)).thenReturn(Page.empty());
+        when(repository.findItemsByOwnerId(userId, PageRequest.of(from / size, size))).thenReturn(Page.empty());
         List<ItemDtoByOwner> itemDtos = service.findByOwnerId(userId, from, size);
         assertNotNull(itemDtos);
         assertEquals(0, itemDtos.size());
+        verifyNoInteractions(commentRepository, bookingRepository);
+    }
+
+    private static Optional<ItemCardFingerprint> fingerprint(String value, boolean owner) {
+        return Optional.of(new ItemCardFingerprint() {
+            @Override
+            public String getFingerprint() {
+                return value;
+            }
+
+            @Override
+            public Boolean getOwner() {
+                return owner;
+            }
+        });
     }
 }
\ No newline at end of file
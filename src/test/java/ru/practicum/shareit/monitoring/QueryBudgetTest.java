@@ -0,0 +1,173 @@
+package ru.practicum.shareit.monitoring;
+
+import lombok.experimental.FieldDefaults;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequestService;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static lombok.AccessLevel.PRIVATE;
+
+@SpringBootTest
+@Transactional
+@FieldDefaults(level = PRIVATE)
+class QueryBudgetTest {
+    static final int ITEMS = 5;
+    static final int BATCH = 30;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    UserService userService;
+    @Autowired
+    ItemService itemService;
+    @Autowired
+    BookingService bookingService;
+    @Autowired
+    ItemRequestService itemRequestService;
+    User owner;
+    User booker;
+    Item item;
+    Booking booking;
+    Booking waitingBooking;
+    ItemRequest request;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        owner = User.builder().name("owner").email("owner@budget.ru").build();
+        entityManager.persist(owner);
+        request = ItemRequest.builder().description("need a table").requester(owner).created(now).build();
+        entityManager.persist(request);
+        for (int i = 0; i < ITEMS; i++) {
+            booker = User.builder().name("booker" + i).email("booker" + i + "@budget.ru").build();
+            entityManager.persist(booker);
+            item = Item.builder().name("table " + i).description("green table").available(true)
+                    .owner(owner).request(request).build();
+            entityManager.persist(item);
+            booking = Booking.builder().item(item).booker(booker).status(Status.APPROVED)
+                    .start(now.minusDays(2)).end(now.minusDays(1)).build();
+            entityManager.persist(booking);
+            waitingBooking = Booking.builder().item(item).booker(booker).status(Status.WAITING)
+                    .start(now.plusDays(1)).end(now.plusDays(2)).build();
+            entityManager.persist(waitingBooking);
+            entityManager.persist(Comment.builder().text("nice").author(owner).item(item).created(now).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void userServiceWithinBudget() {
+        assertBudget(1, () -> userService.getUserById(owner.getId()));
+        assertBudget(1, () -> userService.getAllUsers());
+    }
+
+    @Test
+    void itemServiceWithinBudget() {
+        assertBudget(5, () -> itemService.getItemById(owner.getId(), item.getId()));
+        assertBudget(7, () -> itemService.findByOwnerId(owner.getId(), 0, ITEMS));
+        assertBudget(7, () -> itemService.findByOwnerId(owner.getId(), 0, ITEMS));
+        assertBudget(3, () -> itemService.getUserItemByText("table", 0, ITEMS));
+        assertBudget(1, () -> itemService.getItemCardVersion(booker.getId(), item.getId()));
+        assertBudget(2, () -> itemService.getComments(item.getId(), null, ITEMS));
+    }
+
+    @Test
+    void itemWritesWithinBudget() {
+        assertBudget(4, () -> flushed(itemService.saveItem(ItemDto.builder().name("stool").description("oak stool")
+                .available(true).requestId(request.getId()).build(), owner.getId())));
+        assertBudget(3, () -> flushed(itemService.updateItem(ItemDto.builder().name("big table").build(),
+                item.getId(), owner.getId())));
+        assertBudget(5, () -> flushed(itemService.addComment(CommentDto.builder().text("solid").build(),
+                booker.getId(), item.getId())));
+    }
+
+    @Test
+    void deleteItemWithinBudget() {
+        // Item.owner каскадирует удаление, поэтому у удаляемой вещи свой владелец без других данных
+        User seller = User.builder().name("seller").email("seller@budget.ru").build();
+        entityManager.persist(seller);
+        Item stool = Item.builder().name("stool").description("oak stool").available(true).owner(seller).build();
+        entityManager.persist(stool);
+        entityManager.flush();
+        assertBudget(4, () -> {
+            itemService.deleteItem(seller.getId(), stool.getId());
+            return flushed(null);
+        });
+    }
+
+    @Test
+    void bookingServiceWithinBudget() {
+        assertBudget(1, () -> bookingService.findBookingById(booker.getId(), booking.getId()));
+        assertBudget(2, () -> bookingService.findAllUsersBooking(booker.getId(), "ALL", 0, ITEMS));
+        assertBudget(4, () -> bookingService.findAllBookingsForItems(owner.getId(), "ALL", 0, ITEMS));
+        assertBudget(2, () -> bookingService.findAllBookingsForItemsAfter(owner.getId(), "ALL",
+                LocalDateTime.now().plusYears(1) + ",0", ITEMS));
+        assertBudget(2, () -> bookingService.findAllUsersBookingAfter(booker.getId(), "ALL",
+                LocalDateTime.now().plusYears(1) + ",0", ITEMS));
+    }
+
+    @Test
+    void bookingWritesWithinBudget() {
+        LocalDateTime start = LocalDateTime.now().plusDays(5);
+        assertBudget(7, () -> flushed(bookingService.createBooking(BookingDto.builder().itemId(item.getId())
+                .start(start).end(start.plusDays(1)).build(), booker.getId())));
+        assertBudget(5, () -> flushed(bookingService.confirmBookingByOwner(owner.getId(), waitingBooking.getId(),
+                true)));
+    }
+
+    @Test
+    void batchSavesWithinBudget() {
+        List<UserDto> users = new ArrayList<>();
+        List<ItemDto> items = new ArrayList<>();
+        for (int i = 0; i < BATCH; i++) {
+            users.add(new UserDto(null, "batch" + i, "batch" + i + "@budget.ru"));
+            items.add(ItemDto.builder().name("chair " + i).description("chair").available(true)
+                    .requestId(request.getId()).build());
+        }
+        assertBudget(3, () -> flushed(userService.saveUsers(users)));
+        assertBudget(5, () -> flushed(itemService.saveItems(items, owner.getId())));
+    }
+
+    @Test
+    void itemRequestServiceWithinBudget() {
+        assertBudget(3, () -> itemRequestService.getRequestById(owner.getId(), request.getId()));
+        assertBudget(3, () -> itemRequestService.findAllUsersRequestsWithReplies(owner.getId()));
+        assertBudget(3, () -> itemRequestService.getAllRequests(booker.getId(), 0, ITEMS));
+    }
+
+    private <T> T flushed(T result) {
+        entityManager.flush();
+        return result;
+    }
+
+    private <T> T assertBudget(long budget, Supplier<T> call) {
+        entityManager.clear();
+        QueryCounter.reset();
+        T result = call.get();
+        Assertions.assertThat(QueryCounter.count()).as("executed statements").isLessThanOrEqualTo(budget);
+        return result;
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoByOwner;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
@@ -105,4 +106,14 @@ public class ItemRequestIntegrationTest {
         assertThat(itemRequestDto.getDescription()).isEqualTo(request.getDescription());
         assertThat(result.getRequester()).isEqualTo(user);
     }
-}
\ No newline at end of file
+
+    @Test
+    void requestETagChangesWhenReplyAdded() {
+        String eTag = itemRequestService.getRequestETag(user.getId(), request.getId()).orElseThrow();
+        em.persist(Item.builder().name("table").description("oak").available(true).owner(owner)
+                .request(request).build());
+        em.flush();
+        assertThat(itemRequestService.getRequestETag(user.getId(), request.getId())).isPresent().get()
+                .isNotEqualTo(eTag);
+    }
+}
@@ -17,7 +17,9 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoByOwner;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.UserCache;
 import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
@@ -38,6 +40,8 @@ class ItemRequestServiceTest {
     @Mock
     UserRepository userRepository;
     @Mock
+    UserCache userCache;
+    @Mock
     ItemRepository itemRepository;
     @InjectMocks
     ItemRequestServiceImpl service;
@@ -80,6 +84,8 @@ class ItemRequestServiceTest {
                 requester.getId());
         assertNotNull(requestDto);
         assertEquals(request.getId(), requestDto.getId());
+        assertEquals(new UserDto(requester.getId(), requester.getName(), requester.getEmail()),
+                requestDto.getRequester());
         verify(requestRepository, times(1)).save(any());
     }
 
@@ -97,7 +103,7 @@ class ItemRequestServiceTest {
     @Test
     void succeedFindAllByRequesterId() {
         long userId = requester.getId();
-        when(userRepository.existsById(userId)).thenReturn(true);
+        when(userCache.exists(userId)).thenReturn(true);
         when(requestRepository.findAllByRequesterId(userId)).thenReturn(List.of(request));
         List<ItemRequestDtoByOwner> requests = service.findAllUsersRequestsWithReplies(userId);
         assertNotNull(requests);
@@ -133,7 +139,7 @@ class ItemRequestServiceTest {
     @Test
     void findByIdTest() {
         long userId = requester.getId();
-        when(userRepository.existsById(userId)).thenReturn(true);
+        when(userCache.exists(userId)).thenReturn(true);
         long requestId = request.getId();
         when(requestRepository.findById(requestId)).thenReturn(Optional.of(request));
         when(itemRepository.findByRequestId(requestId)).thenReturn(List.of(item));
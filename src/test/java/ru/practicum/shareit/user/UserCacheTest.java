@@ -0,0 +1,55 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheTest {
+    @Mock
+    private UserRepository userRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private UserCache userCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userCache = new UserCache(userRepository, meterRegistry, 100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void existsLoadsUserOnce() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        assertTrue(userCache.exists(1L));
+        assertTrue(userCache.exists(1L));
+        verify(userRepository, times(1)).existsById(1L);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "users").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void missingUserIsNotCached() {
+        when(userRepository.existsById(2L)).thenReturn(false, true);
+        assertFalse(userCache.exists(2L));
+        assertTrue(userCache.exists(2L));
+        assertTrue(userCache.exists(2L));
+        verify(userRepository, times(2)).existsById(2L);
+    }
+
+    @Test
+    void evictReloadsUser() {
+        when(userRepository.existsById(3L)).thenReturn(true, false);
+        assertTrue(userCache.exists(3L));
+        userCache.evict(3L);
+        assertFalse(userCache.exists(3L));
+        verify(userRepository, times(2)).existsById(3L);
+    }
+}
@@ -1,12 +1,15 @@
 package ru.practicum.shareit.user;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
@@ -15,15 +18,19 @@ import ru.practicum.shareit.user.dto.UserDto;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = UserController.class)
+@Import(SimpleMeterRegistry.class)
 class UserControllerTest {
     @Autowired
     ObjectMapper mapper;
@@ -50,6 +57,26 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.email", Matchers.is(userDto.getEmail())));
     }
 
+    @Test
+    void succeedCreateUsers() throws Exception {
+        when(userService.saveUsers(any())).thenReturn(List.of(userDto));
+        mockMvc.perform(post("/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(List.of(userDto))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", Matchers.is(userDto.getId()), Long.class))
+                .andExpect(jsonPath("$[0].email", Matchers.is(userDto.getEmail())));
+    }
+
+    @Test
+    void failCreateUsersWithInvalidEmail() throws Exception {
+        mockMvc.perform(post("/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(List.of(new UserDto(null, "test", "not-an-email")))))
+                .andExpect(status().isBadRequest());
+        verify(userService, never()).saveUsers(any());
+    }
+
     @Test
     void succeedUpdateUserNameAndEmail() throws Exception {
         when(userService.updateUser(any(), anyLong())).thenReturn(userDto);
@@ -101,6 +128,21 @@ class UserControllerTest {
                 );
     }
 
+    @Test
+    void findByIdReturnsETagAndNotModified() throws Exception {
+        when(userService.getUserETag(1L)).thenReturn(Optional.of("\"v1\""));
+        when(userService.getUserById(1L)).thenReturn(userDto);
+        mockMvc.perform(get("/users/1"))
+                .andExpectAll(status().isOk(),
+                        header().string(HttpHeaders.ETAG, "\"v1\""),
+                        header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+        mockMvc.perform(get("/users/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                .andExpectAll(status().isNotModified(),
+                        content().string(""));
+        verify(userService, times(1)).getUserById(1L);
+    }
+
     @Test
     void succeedDeleteUser() throws Exception {
         mockMvc.perform(delete("/users/{id}", userDto.getId())).andExpect(status().isOk());
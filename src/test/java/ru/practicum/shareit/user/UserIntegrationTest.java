@@ -72,4 +72,14 @@ class UserIntegrationTest {
         List<UserDto> actualList = userService.getAllUsers();
         Assertions.assertThat(actualList).usingRecursiveComparison().isEqualTo(expectedList);
     }
+
+    @Test
+    void userETagChangesOnUpdate() {
+        Long userId = user1.getId();
+        String eTag = userService.getUserETag(userId).orElseThrow();
+        userService.updateUser(UserDto.builder().name("renamed").build(), userId);
+        em.flush();
+        Assertions.assertThat(userService.getUserETag(userId)).isPresent().get().isNotEqualTo(eTag);
+        Assertions.assertThat(userService.getUserETag(-1L)).isEmpty();
+    }
 }
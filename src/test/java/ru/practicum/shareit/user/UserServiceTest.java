@@ -21,6 +21,8 @@ import static org.mockito.Mockito.*;
 class UserServiceTest {
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private UserCache userCache;
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -75,6 +77,22 @@ class UserServiceTest {
         assertEquals(user.getName(), result.getName());
         assertEquals(user.getEmail(), result.getEmail());
         verify(userRepository, times(1)).save(any(User.class));
+        verify(userCache, times(1)).put(user.getId());
+    }
+
+    @Test
+    void testSaveUsers() {
+        List<UserDto> userDtos = List.of(new UserDto(null, "First", "first@test.com"),
+                new UserDto(null, "Second", "second@test.com"));
+        List<User> users = List.of(User.builder().id(1L).name("First").email("first@test.com").build(),
+                User.builder().id(2L).name("Second").email("second@test.com").build());
+        when(userRepository.saveAll(anyList())).thenReturn(users);
+        List<UserDto> result = userService.saveUsers(userDtos);
+        assertEquals(2, result.size());
+        assertEquals(2L, result.get(1).getId());
+        verify(userRepository, never()).save(any(User.class));
+        verify(userCache, times(1)).put(1L);
+        verify(userCache, times(1)).put(2L);
     }
 
     @Test
@@ -106,5 +124,6 @@ class UserServiceTest {
         Long userId = 1L;
         userService.deleteUser(userId);
         verify(userRepository, times(1)).deleteById(userId);
+        verify(userCache, times(1)).evict(userId);
     }
 }
\ No newline at end of file